@@ -8,6 +8,7 @@ import { ThumbsUp, MessageSquare, Send, Heart } from 'lucide-react';
 import { Card, CardContent } from '@/components/ui/card';
 import { Skeleton } from '@/components/ui/skeleton';
 import { ScrollArea } from '@/components/ui/scroll-area';
+import { Button } from '@/components/ui/button';
 
 interface UserActivityFeedProps {
   userId: number;
@@ -15,22 +16,30 @@ interface UserActivityFeedProps {
 
 const UserActivityFeed: React.FC<UserActivityFeedProps> = ({ userId }) => {
   const [activities, setActivities] = useState<UserActivity[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const { toast } = useToast();
 
+  const showError = (error: unknown) => {
+    console.error('Error fetching activities:', error);
+    toast({
+      title: 'Erreur',
+      description: 'Impossible de charger les activités',
+      variant: 'destructive',
+    });
+  };
+
+  // Première page de la timeline ; les suivantes sont chargées par "Voir plus"
   useEffect(() => {
     const fetchActivities = async () => {
       try {
         setLoading(true);
-        const data = await userActivityService.getUserActivities(userId);
-        setActivities(data);
+        const page = await userActivityService.getUserActivityPage(userId);
+        setActivities(page.items);
+        setNextCursor(page.hasMore ? page.nextCursor : null);
       } catch (error) {
-        console.error('Error fetching activities:', error);
-        toast({
-          title: 'Erreur',
-          description: 'Impossible de charger les activités',
-          variant: 'destructive',
-        });
+        showError(error);
       } finally {
         setLoading(false);
       }
@@ -41,6 +50,22 @@ const UserActivityFeed: React.FC<UserActivityFeedProps> = ({ userId }) => {
     }
   }, [userId, toast]);
 
+  const handleLoadMore = async () => {
+    if (!nextCursor) {
+      return;
+    }
+    try {
+      setLoadingMore(true);
+      const page = await userActivityService.getUserActivityPage(userId, nextCursor);
+      setActivities(prev => [...prev, ...page.items]);
+      setNextCursor(page.hasMore ? page.nextCursor : null);
+    } catch (error) {
+      showError(error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const getActivityIcon = (type: string) => {
     switch (type) {
       case 'POST':
@@ -142,6 +167,15 @@ const UserActivityFeed: React.FC<UserActivityFeedProps> = ({ userId }) => {
           </Card>
         ))}
       </div>
+
+      {/* Bouton "Voir plus" : page suivante de la timeline */}
+      {nextCursor && (
+        <div className="flex justify-center mt-4">
+          <Button variant="outline" onClick={handleLoadMore} disabled={loadingMore}>
+            {loadingMore ? 'Chargement...' : "Voir plus d'activités"}
+          </Button>
+        </div>
+      )}
     </ScrollArea>
   );
 };
@@ -12,11 +12,20 @@ export interface UserActivity {
   postId?: number;
 }
 
+export interface UserActivityPage {
+  items: UserActivity[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export const userActivityService = {
-  getUserActivities: async (userId: number): Promise<UserActivity[]> => {
+  // Timeline paginée : passer le nextCursor de la page précédente pour obtenir la suivante
+  getUserActivityPage: async (userId: number, cursor?: string, size?: number): Promise<UserActivityPage> => {
     try {
       // Utiliser l'API gateway pour accéder au service
-      const response = await apiClient.get(`/user-activities/${userId}`);
+      const response = await apiClient.get(`/user-activities/${userId}`, {
+        params: { cursor, size }
+      });
       return response.data;
     } catch (error) {
       console.error('Error fetching user activities:', error);
@@ -1,5 +1,7 @@
 package com.User.Useverification.Config;
 
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.spring.ImageVariantResourceResolver;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -9,10 +11,18 @@ import java.util.Objects;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ImageVariants imageVariants;
+
+    public WebConfig(ImageVariants imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         String uploadDir = Paths.get("uploads").toAbsolutePath().toString();
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadDir + "/");
+                .addResourceLocations("file:" + uploadDir + "/")
+                .resourceChain(false)
+                .addResolver(new ImageVariantResourceResolver(imageVariants));
     }
 }
\ No newline at end of file
@@ -12,7 +12,8 @@ import com.User.Useverification.Request.ResetPasswordRequest;
 import com.User.Useverification.Request.ResetRequest;
 import com.User.Useverification.Request.VerifRequest;
 import com.User.Useverification.Security.JwtTokenUtil;
-import com.User.Useverification.services.TokenBlacklistService;
+import com.User.Useverification.Security.JwtPrincipal;
+import com.User.Useverification.services.TokenRevocationService;
 import com.User.Useverification.services.UserServices;
 
 @RestController
@@ -20,14 +21,14 @@ import com.User.Useverification.services.UserServices;
 public class AuthController {
 
     private final UserServices userService;
-    private final TokenBlacklistService tokenBlacklistService;
+    private final TokenRevocationService tokenRevocationService;
     private final JwtTokenUtil jwtTokenUtil;
 
     public AuthController(UserServices userService,
-                          TokenBlacklistService tokenBlacklistService,
+                          TokenRevocationService tokenRevocationService,
                           JwtTokenUtil jwtTokenUtil) {
         this.userService = userService;
-        this.tokenBlacklistService = tokenBlacklistService;
+        this.tokenRevocationService = tokenRevocationService;
         this.jwtTokenUtil = jwtTokenUtil;
         
     }
@@ -92,9 +93,18 @@ public class AuthController {
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader) {
         String token = authHeader.substring(7);
-        long expiration = jwtTokenUtil.getTokenExpiration(token);
-        tokenBlacklistService.addTokenToBlacklist(token, expiration);
+        JwtPrincipal principal = jwtTokenUtil.parseVerified(token);
+        if (principal == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid token"));
+        }
+        tokenRevocationService.revoke(principal.tokenId(), principal.expiresAtMillis());
         return ResponseEntity.ok(Map.of("message", "Logout successful"));
     }
 
+    // Consulté par les autres services avant une action sensible (endpoints d'administration)
+    @GetMapping("/revocations/{tokenId}")
+    public ResponseEntity<?> revocationStatus(@PathVariable String tokenId, @RequestParam long expiresAt) {
+        return ResponseEntity.ok(Map.of("revoked", tokenRevocationService.isRevoked(tokenId, expiresAt)));
+    }
+
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import com.User.Useverification.services.UserServices;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -61,6 +62,19 @@ public class UserController {
 
     }
 
+    // Résolution groupée pour les autres services : une requête, réponse dans l'ordre des ids
+    @PostMapping("/bulk")
+    public ResponseEntity<?> getUsersByIds(@RequestBody List<Long> ids,
+                                           @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(userService.getUserSummaries(ids, fields));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     @GetMapping("/all")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<?> getAllUsers() {
@@ -0,0 +1,42 @@
+package com.User.Useverification.Model.DTO;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.*;
+
+/**
+ * Profil public d'un utilisateur (sans mot de passe ni données personnelles), lu par
+ * projection JPQL pour les résolutions groupées des autres services. Les champs non
+ * demandés restent null et sont omis du JSON.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserSummaryDto {
+    public static final Set<String> FIELDS = Set.of("id", "firstName", "lastName", "email", "image", "departement", "enabled");
+
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String image;
+    private String departement;
+    private Boolean enabled;
+
+    // Copie limitée aux champs demandés ; l'identifiant est toujours renvoyé
+    public UserSummaryDto project(Set<String> fields) {
+        return UserSummaryDto.builder()
+            .id(id)
+            .firstName(fields.contains("firstName") ? firstName : null)
+            .lastName(fields.contains("lastName") ? lastName : null)
+            .email(fields.contains("email") ? email : null)
+            .image(fields.contains("image") ? image : null)
+            .departement(fields.contains("departement") ? departement : null)
+            .enabled(fields.contains("enabled") ? enabled : null)
+            .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.User.Useverification.Model.entity;
+
+import java.time.LocalDateTime;
+
+import com.User.Useverification.enums.EmailStatus;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Email à envoyer, écrit dans la même transaction que la modification de l'utilisateur qui
+ * le motive ; EmailOutboxDispatcher l'envoie ensuite en arrière-plan.
+ */
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_claim", columnList = "claim_token")
+})
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class OutboxEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    // HTML
+    @Lob
+    @Column(nullable = false)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmailStatus status;
+
+    private int attempts;
+
+    // Prochain envoi possible : date de retry, ou fin du bail d'une instance qui l'a réservé
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+}
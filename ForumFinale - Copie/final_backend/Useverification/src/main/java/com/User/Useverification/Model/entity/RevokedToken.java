@@ -0,0 +1,30 @@
+package com.User.Useverification.Model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Token révoqué (déconnexion), identifié par son claim jti. Partagé entre les instances de
+ * Useverification ; la ligne n'a plus d'utilité une fois le token expiré.
+ */
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+})
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class RevokedToken {
+
+    @Id
+    @Column(length = 64)
+    private String jti;
+
+    // Epoch en millisecondes
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private long revokedAt;
+}
@@ -0,0 +1,39 @@
+package com.User.Useverification.Model.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.User.Useverification.Model.entity.OutboxEmail;
+import com.User.Useverification.enums.EmailStatus;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<OutboxEmail, Long> {
+
+    @Query("SELECT e.id FROM OutboxEmail e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<Long> findDueIds(@Param("status") EmailStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Réservation : seules les lignes encore dues passent à l'instance appelante (une autre a pu les prendre)
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEmail e SET e.claimToken = :token, e.nextAttemptAt = :leaseUntil " +
+           "WHERE e.id IN :ids AND e.status = :status AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") List<Long> ids, @Param("status") EmailStatus status, @Param("now") LocalDateTime now,
+              @Param("token") String token, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboxEmail> findByClaimToken(String claimToken);
+
+    long countByStatus(EmailStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEmail e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteSentBefore(@Param("status") EmailStatus status, @Param("before") LocalDateTime before);
+}
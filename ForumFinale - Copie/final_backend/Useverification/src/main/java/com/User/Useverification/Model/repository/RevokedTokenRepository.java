@@ -0,0 +1,24 @@
+package com.User.Useverification.Model.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.User.Useverification.Model.entity.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Révocations récentes (de toutes les instances) dont le token n'a pas encore expiré
+    List<RevokedToken> findByRevokedAtGreaterThanEqualAndExpiresAtGreaterThan(long revokedSince, long now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
@@ -1,11 +1,22 @@
 package com.User.Useverification.Model.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.User.Useverification.Model.DTO.UserSummaryDto;
 import com.User.Useverification.Model.entity.User;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
 
+    // Une seule requête, colonnes publiques seulement (ni rôles ni mot de passe chargés)
+    @Query("SELECT new com.User.Useverification.Model.DTO.UserSummaryDto(u.id, u.firstName, u.lastName, u.email, " +
+           "u.image, u.departement, u.enabled) FROM User u WHERE u.id IN :ids")
+    List<UserSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
 }
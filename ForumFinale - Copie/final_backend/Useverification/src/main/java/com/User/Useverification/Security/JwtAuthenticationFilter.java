@@ -2,12 +2,11 @@ package com.User.Useverification.Security;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.User.Useverification.services.TokenBlacklistService;
+import com.User.Useverification.services.TokenRevocationService;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -15,18 +14,16 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenUtil jwtTokenUtil;
-    private final TokenBlacklistService tokenBlacklistService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil,
-                                   TokenBlacklistService tokenBlacklistService) {
-        this.jwtTokenUtil = jwtTokenUtil;
-        this.tokenBlacklistService = tokenBlacklistService;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache,
+                                   TokenRevocationService tokenRevocationService) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -38,15 +35,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
     
-            if (jwtTokenUtil.validateToken(token) && !tokenBlacklistService.isTokenBlacklisted(token)) {
-                String username = jwtTokenUtil.extractUsername(token);
-                List<String> roles = jwtTokenUtil.extractRoles(token);
-    
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
-    
-                Authentication authentication = new UsernamePasswordAuthenticationToken(username, null, authorities);
+            // Un seul décodage par token, puis plus aucun contrôle cryptographique tant qu'il est en cache
+            JwtPrincipal principal = verifiedTokenCache.verify(token);
+            if (principal != null
+                    && !tokenRevocationService.isRevoked(principal.tokenId(), principal.expiresAtMillis())) {
+                Authentication authentication = new UsernamePasswordAuthenticationToken(
+                        principal.username(), null, principal.authorities());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             } else {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or revoked token");
@@ -0,0 +1,27 @@
+package com.User.Useverification.Security;
+
+import java.util.List;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Claims d'un token dont la signature a été vérifiée, lus une seule fois et immuables :
+ * partageables entre requêtes via VerifiedTokenCache. {@code tokenId} est le jti, ou une
+ * empreinte du token pour ceux émis avant l'ajout du jti.
+ */
+public record JwtPrincipal(String tokenId,
+                           String username,
+                           Long userId,
+                           List<String> roles,
+                           List<SimpleGrantedAuthority> authorities,
+                           long expiresAtMillis) {
+
+    public JwtPrincipal {
+        roles = List.copyOf(roles);
+        authorities = List.copyOf(authorities);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
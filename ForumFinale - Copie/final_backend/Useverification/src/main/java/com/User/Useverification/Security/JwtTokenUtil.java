@@ -1,29 +1,46 @@
 package com.User.Useverification.Security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 
 import com.User.Useverification.Model.entity.User;
 import com.User.Useverification.Model.repository.UserRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenUtil {
 
-    private static final SecretKey SECRET_KEY = Keys.hmacShaKeyFor("your-256-bit-secret-your-256-bit-secret".getBytes());
     private static final long EXPIRATION_TIME = 86400000;
 
+    private final SecretKey secretKey;
+    // Sans état après construction et sûr entre threads : un seul parser pour toutes les requêtes
+    private final JwtParser parser;
+
+    // Secret partagé avec postService (config/jwt.properties ou JWT_SECRET)
+    public JwtTokenUtil(@Value("${jwt.secret}") String secret) {
+        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+    }
+
     @Autowired
     private UserRepository userRepository;
 
@@ -41,16 +58,47 @@ public class JwtTokenUtil {
 
     return Jwts.builder()
             .setClaims(claims)
+            // Identifiant court du token, utilisé pour sa révocation
+            .setId(UUID.randomUUID().toString())
             .setIssuedAt(new Date())
             .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-            .signWith(SECRET_KEY, SignatureAlgorithm.HS256)
+            .signWith(secretKey, SignatureAlgorithm.HS256)
             .compact();
-}public boolean validateToken(String token) {
+}
+
+    /**
+     * Vérifie la signature et l'expiration puis lit tous les claims utiles en un seul
+     * passage. Retourne null si le token est invalide.
+     */
+    public JwtPrincipal parseVerified(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token);
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            List<String> roles = rolesOf(claims);
+            List<SimpleGrantedAuthority> authorities = roles.stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList());
+            Date expiration = claims.getExpiration();
+            String tokenId = claims.getId() != null ? claims.getId() : legacyTokenId(token);
+            return new JwtPrincipal(tokenId, claims.getSubject(), claims.get("userId", Long.class), roles, authorities,
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Tokens émis sans jti : identifiés par l'empreinte SHA-256 du token entier
+    private static String legacyTokenId(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    public boolean validateToken(String token) {
+        try {
+            parser.parseClaimsJws(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -58,22 +106,17 @@ public class JwtTokenUtil {
     }
 
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     // New method to extract roles
     public List<String> extractRoles(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return rolesOf(parser.parseClaimsJws(token).getBody());
+    }
 
+    private static List<String> rolesOf(Claims claims) {
         Object rolesClaim = claims.get("roles");
         if (rolesClaim instanceof List<?>) {
             return ((List<?>) rolesClaim).stream()
@@ -83,10 +126,7 @@ public class JwtTokenUtil {
         return Collections.emptyList();
     }
     public long getTokenExpiration(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getExpiration()
                 .getTime();
@@ -94,11 +134,7 @@ public class JwtTokenUtil {
 
     // Method to extract userId from token
     public Long extractUserId(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parser.parseClaimsJws(token).getBody();
 
         return claims.get("userId", Long.class);
     }
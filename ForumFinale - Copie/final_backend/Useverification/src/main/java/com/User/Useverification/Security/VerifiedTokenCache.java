@@ -0,0 +1,75 @@
+package com.User.Useverification.Security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.weconnect.media.CacheTrimming;
+
+/**
+ * Tokens déjà vérifiés, indexés par leur empreinte SHA-256 : une requête qui présente un
+ * token déjà vu reçoit son JwtPrincipal sans refaire ni décodage ni contrôle HMAC.
+ * Une entrée ne survit jamais à l'expiration du token. Les tokens invalides ne sont pas
+ * gardés. Le cache est borné ; quand il est plein, les entrées expirées partent d'abord.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtTokenUtil jwtTokenUtil;
+    private final int maxEntries;
+    // Clé : empreinte du token (le token lui-même n'est pas conservé)
+    private final Map<ByteBuffer, JwtPrincipal> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(JwtTokenUtil jwtTokenUtil,
+                              @Value("${jwt.cache.max-entries:10000}") int maxEntries) {
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Principal du token s'il est valide et non expiré, sinon null.
+     */
+    public JwtPrincipal verify(String token) {
+        ByteBuffer key = digest(token);
+        long now = System.currentTimeMillis();
+        JwtPrincipal cached = entries.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            entries.remove(key, cached);
+            return null;
+        }
+
+        JwtPrincipal principal = jwtTokenUtil.parseVerified(token);
+        if (principal != null) {
+            if (entries.size() >= maxEntries) {
+                CacheTrimming.trim(entries, maxEntries, entry -> entry.isExpired(now));
+            }
+            entries.put(key, principal);
+        }
+        return principal;
+    }
+
+    public void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.User.Useverification;
 
+import com.weconnect.media.spring.MediaStoreConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@Import(MediaStoreConfiguration.class)
 public class UseverificationApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,5 @@
+package com.User.Useverification.enums;
+
+public enum EmailStatus {
+    PENDING, SENT, FAILED
+}
@@ -0,0 +1,274 @@
+package com.User.Useverification.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.User.Useverification.Model.entity.OutboxEmail;
+import com.User.Useverification.Model.repository.EmailOutboxRepository;
+import com.User.Useverification.enums.EmailStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Envoie les emails de la table email_outbox, sur un thread dédié.
+ *
+ * <p>Les emails dus sont réservés par lot (jeton et bail), ce qui permet à plusieurs instances
+ * de Useverification de se partager la file sans double envoi ; une instance arrêtée pendant
+ * l'envoi libère son lot à la fin du bail. Chaque lot part sur une seule connexion SMTP.
+ * Un échec est retenté avec un délai doublé à chaque tentative (plafonné, avec une part
+ * aléatoire) ; après {@code max-attempts}, l'email est marqué FAILED.
+ *
+ * <p>Métriques : {@code users.email.outbox.sent}, {@code .retried}, {@code .failed},
+ * {@code .pending} et le temps d'envoi d'un lot {@code users.email.outbox.batch}.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender javaMailSender;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration retention;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "email-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Au plus un passage en attente : les déclenchements rapprochés sont regroupés
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer batchTimer;
+    private final AtomicLong pending = new AtomicLong();
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender javaMailSender,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${email.outbox.from:${spring.mail.username:}}") String from,
+                                 @Value("${email.outbox.batch-size:20}") int batchSize,
+                                 @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${email.outbox.initial-backoff-seconds:30}") long initialBackoffSeconds,
+                                 @Value("${email.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+                                 @Value("${email.outbox.lease-seconds:300}") long leaseSeconds,
+                                 @Value("${email.outbox.retention-days:7}") long retentionDays) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.from = from.trim();
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+        this.sent = meterRegistry.counter("users.email.outbox.sent");
+        this.retried = meterRegistry.counter("users.email.outbox.retried");
+        this.failed = meterRegistry.counter("users.email.outbox.failed");
+        this.batchTimer = meterRegistry.timer("users.email.outbox.batch");
+        meterRegistry.gauge("users.email.outbox.pending", pending);
+    }
+
+    public void triggerAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    trigger();
+                }
+            });
+        } else {
+            trigger();
+        }
+    }
+
+    // Rattrape les retries arrivés à échéance et les emails d'autres instances
+    @Scheduled(
+        initialDelayString = "${email.outbox.poll-interval-ms:5000}",
+        fixedDelayString = "${email.outbox.poll-interval-ms:5000}"
+    )
+    public void trigger() {
+        if (scheduled.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                scheduled.set(false);
+                try {
+                    dispatch();
+                } catch (RuntimeException e) {
+                    log.warn("Email outbox dispatch failed: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    @Scheduled(cron = "${email.outbox.purge-cron:0 30 3 * * *}")
+    public void purgeSent() {
+        try {
+            emailOutboxRepository.deleteSentBefore(EmailStatus.SENT, LocalDateTime.now().minus(retention));
+        } catch (RuntimeException e) {
+            log.warn("Email outbox purge failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Envoie les emails dus, lot par lot, jusqu'à vider la file. Retourne le nombre d'emails
+     * envoyés.
+     */
+    public int dispatch() {
+        int total = 0;
+        while (true) {
+            List<OutboxEmail> batch = claimBatch();
+            if (batch.isEmpty()) {
+                break;
+            }
+            total += batchTimer.record(() -> send(batch));
+        }
+        pending.set(emailOutboxRepository.countByStatus(EmailStatus.PENDING));
+        return total;
+    }
+
+    private List<OutboxEmail> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = emailOutboxRepository.findDueIds(EmailStatus.PENDING, now, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String token = UUID.randomUUID().toString();
+        if (emailOutboxRepository.claim(ids, EmailStatus.PENDING, now, token, now.plus(lease)) == 0) {
+            // Tout le lot a été pris par une autre instance entre-temps : on relit
+            return claimBatch();
+        }
+        return emailOutboxRepository.findByClaimToken(token);
+    }
+
+    private int send(List<OutboxEmail> batch) {
+        // Ordre de la file conservé ; MimeMessage compare par identité
+        Map<MimeMessage, OutboxEmail> messages = new LinkedHashMap<>();
+        for (OutboxEmail email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException | MailException e) {
+                // Adresse ou contenu invalide : un nouvel essai n'y changerait rien
+                markFailed(email, e, false);
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            // Une seule connexion SMTP pour tout le lot
+            javaMailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(messages, e);
+            }
+        } catch (MailException e) {
+            // Authentification refusée : rien n'est parti
+            failures = allFailed(messages, e);
+        }
+
+        int delivered = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, OutboxEmail> entry : messages.entrySet()) {
+            OutboxEmail email = entry.getValue();
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                email.setStatus(EmailStatus.SENT);
+                email.setSentAt(now);
+                email.setAttempts(email.getAttempts() + 1);
+                email.setLastError(null);
+                sent.increment();
+                delivered++;
+            } else {
+                markFailed(email, failure, true);
+            }
+        }
+        batch.forEach(email -> email.setClaimToken(null));
+        emailOutboxRepository.saveAll(batch);
+        return delivered;
+    }
+
+    private void markFailed(OutboxEmail email, Exception failure, boolean retryable) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncate(failure.getMessage()));
+        if (!retryable || attempts >= maxAttempts) {
+            email.setStatus(EmailStatus.FAILED);
+            failed.increment();
+            log.warn("Email {} to {} abandoned after {} attempt(s): {}", email.getId(), email.getRecipient(),
+                    attempts, failure.getMessage());
+        } else {
+            email.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+            retried.increment();
+        }
+    }
+
+    // initial * 2^(tentatives - 1), plafonné, plus jusqu'à 20 % aléatoires pour étaler les reprises
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        return Duration.ofMillis(capped + ThreadLocalRandom.current().nextLong(capped / 5 + 1));
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        if (!from.isEmpty()) {
+            helper.setFrom(from);
+        }
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true);
+        return message;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, OutboxEmail> messages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        messages.keySet().forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -1,37 +1,44 @@
 package com.User.Useverification.services;
 
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import java.time.LocalDateTime;
+
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.User.Useverification.Model.entity.OutboxEmail;
+import com.User.Useverification.Model.repository.EmailOutboxRepository;
+import com.User.Useverification.enums.EmailStatus;
 
 
+/**
+ * Met les emails en file (table email_outbox) au lieu de les envoyer pendant la requête :
+ * appelé dans la transaction de l'appelant, l'email n'existe que si la modification de
+ * l'utilisateur est validée. L'envoi est fait par EmailOutboxDispatcher.
+ */
 @Service
 public class EmailService {
 
-    private final JavaMailSender javaMailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
 
-    public EmailService(JavaMailSender javaMailSender) {
-        this.javaMailSender = javaMailSender;
+    public EmailService(EmailOutboxRepository emailOutboxRepository,
+                        EmailOutboxDispatcher emailOutboxDispatcher) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailOutboxDispatcher = emailOutboxDispatcher;
     }
 
+    @Transactional
     public void sendEmail(String to,String subject,String body) {
-
-        try {
-            MimeMessage message = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message,true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body,true);
-            javaMailSender.send(message);
-        } catch (MessagingException e) {
-            e.printStackTrace();
-            e.getMessage();
-            throw new RuntimeException(e);
-        }
-
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.save(OutboxEmail.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .status(EmailStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        // Envoi dès la validation, sans attendre le prochain passage périodique
+        emailOutboxDispatcher.triggerAfterCommit();
     }
 }
-
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 import com.User.Useverification.Model.DTO.ProfileUpdateDTO;
 import com.User.Useverification.Model.DTO.UserDto;
+import com.User.Useverification.Model.DTO.UserSummaryDto;
 import com.User.Useverification.Request.LoginRequest;
 import com.User.Useverification.Request.RegisterRequest;
 import com.User.Useverification.Request.ResetPasswordRequest;
@@ -24,6 +25,7 @@ public interface UserServices {
     ResponseEntity<?> updateUser(Long id, ProfileUpdateDTO userDto);
     String deleteUser(Long id);
     List<UserDto> getAllUsers();
+    List<UserSummaryDto> getUserSummaries(List<Long> ids, String fields);
     String uploadImage(Long userId, MultipartFile file) throws IOException;
     boolean removeImage(Long userId) throws IOException;
     // Add other methods like getUser, getUserByEmail if needed
@@ -0,0 +1,134 @@
+package com.User.Useverification.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hachage et vérification BCrypt sur un pool dédié, borné au nombre de cœurs : une vague de
+ * connexions ne consomme plus le CPU ni les threads Tomcat dont les autres endpoints ont besoin.
+ * La file d'attente est bornée ; pleine, la demande est refusée tout de suite
+ * ({@link SaturatedException}, à traduire en 503) au lieu d'attendre.
+ *
+ * <p>Métriques : {@code users.password.hash.queue} (profondeur de file),
+ * {@code users.password.hash.active}, {@code users.password.hash.rejected} et le temps de
+ * hachage {@code users.password.hash}.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final int targetStrength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final Timer hashTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.password.bcrypt-strength:10}") int targetStrength,
+                                  @Value("${security.password.hash-threads:0}") int threads,
+                                  @Value("${security.password.hash-queue-capacity:64}") int queueCapacity,
+                                  @Value("${security.password.hash-timeout-ms:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.targetStrength = targetStrength;
+        this.timeoutMs = timeoutMs;
+        // 0 : un thread par cœur
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("users.password.hash.queue", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("users.password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.rejected = meterRegistry.counter("users.password.hash.rejected");
+        this.hashTimer = meterRegistry.timer("users.password.hash");
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Vrai si le coût du hash stocké ({@code $2a$10$...}) diffère du coût configuré, dans un
+     * sens comme dans l'autre : le mot de passe est alors re-haché à la prochaine connexion.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != targetStrength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Le thread appelant attend sans consommer de CPU ; au plus la taille de la file en attente
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SaturatedException();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("Password hashing timed out after {} ms", timeoutMs);
+            throw new SaturatedException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SaturatedException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public static class SaturatedException extends RuntimeException {
+        public SaturatedException() {
+            super("Too many concurrent password operations, please retry");
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.User.Useverification.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.User.Useverification.Model.entity.RevokedToken;
+import com.User.Useverification.Model.repository.RevokedTokenRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tokens révoqués par déconnexion, identifiés par leur jti.
+ *
+ * <p>Chaque révocation est enregistrée dans la table revoked_tokens : elle survit aux
+ * redémarrages et les autres instances la récupèrent à leur prochaine synchronisation.
+ * En mémoire, les jti sont rangés par tranche de leur date d'expiration ; une tranche
+ * entièrement expirée est abandonnée d'un bloc, sans parcourir les entrées.
+ *
+ * <p>Un filtre de Bloom répond au cas courant (token non révoqué) sans consulter les tranches.
+ * Il ne sait pas retirer d'élément : il est reconstruit quand des tranches sont abandonnées.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long bucketMillis;
+    private final long syncOverlapMillis;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    // Fin de tranche (epoch ms) -> jti des tokens révoqués qui expirent dans la tranche
+    private final NavigableMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+    private final Object lock = new Object();
+    private volatile BloomFilter filter;
+    private int count;
+
+    // Révocations pas encore écrites en base (base indisponible), réessayées à la synchronisation
+    private final Queue<RevokedToken> pending = new ConcurrentLinkedQueue<>();
+    private volatile long lastSync;
+    private volatile long lastPurge;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${jwt.revocation.bucket-minutes:60}") long bucketMinutes,
+                                  @Value("${jwt.revocation.sync-overlap-ms:60000}") long syncOverlapMillis,
+                                  @Value("${jwt.revocation.expected-entries:100000}") int expectedEntries,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bucketMillis = Duration.ofMinutes(bucketMinutes).toMillis();
+        this.syncOverlapMillis = syncOverlapMillis;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+        addLocal(tokenId, expiresAtMillis);
+        RevokedToken revoked = new RevokedToken(tokenId, expiresAtMillis, now);
+        try {
+            revokedTokenRepository.save(revoked);
+        } catch (RuntimeException e) {
+            // Révocation déjà effective sur cette instance ; les autres la verront après réécriture
+            log.warn("Token revocation not persisted, will retry: {}", e.getMessage());
+            pending.add(revoked);
+        }
+    }
+
+    /**
+     * {@code expiresAtMillis} est l'expiration lue dans le token : elle désigne sa tranche.
+     */
+    public boolean isRevoked(String tokenId, long expiresAtMillis) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        Set<String> bucket = buckets.get(bucketEnd(expiresAtMillis));
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        sync();
+        log.info("Token revocation store loaded with {} revoked token(s)", size());
+    }
+
+    /**
+     * Écrit les révocations en attente, récupère celles des autres instances, abandonne les
+     * tranches expirées et, une fois par tranche, purge la table.
+     */
+    @Scheduled(
+        initialDelayString = "${jwt.revocation.sync-interval-ms:10000}",
+        fixedDelayString = "${jwt.revocation.sync-interval-ms:10000}"
+    )
+    public void sync() {
+        long now = System.currentTimeMillis();
+        try {
+            RevokedToken revoked;
+            while ((revoked = pending.peek()) != null) {
+                revokedTokenRepository.save(revoked);
+                pending.poll();
+            }
+
+            // Recouvrement : tolère les écarts d'horloge et les transactions validées en retard
+            long since = lastSync == 0 ? 0 : lastSync - syncOverlapMillis;
+            List<RevokedToken> recent = revokedTokenRepository
+                    .findByRevokedAtGreaterThanEqualAndExpiresAtGreaterThan(since, now);
+            recent.forEach(token -> addLocal(token.getJti(), token.getExpiresAt()));
+            lastSync = now;
+
+            if (now - lastPurge >= bucketMillis) {
+                revokedTokenRepository.deleteExpired(now);
+                lastPurge = now;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Token revocation sync failed: {}", e.getMessage());
+        }
+        dropExpiredBuckets(now);
+    }
+
+    private void addLocal(String tokenId, long expiresAtMillis) {
+        synchronized (lock) {
+            if (!buckets.computeIfAbsent(bucketEnd(expiresAtMillis), end -> ConcurrentHashMap.newKeySet()).add(tokenId)) {
+                return;
+            }
+            count++;
+            if (count > filter.capacity()) {
+                rebuildFilter(count * 2);
+            } else {
+                filter.put(tokenId);
+            }
+        }
+    }
+
+    private void dropExpiredBuckets(long now) {
+        synchronized (lock) {
+            // Une tranche dont la fin est passée ne contient plus que des tokens expirés
+            Map<Long, Set<String>> expired = buckets.headMap(now, true);
+            if (expired.isEmpty()) {
+                return;
+            }
+            expired.values().forEach(bucket -> count -= bucket.size());
+            expired.clear();
+            rebuildFilter(Math.max(expectedEntries, count * 2));
+        }
+    }
+
+    // Appelé sous le verrou ; le nouveau filtre est rempli avant d'être publié
+    private void rebuildFilter(int capacity) {
+        BloomFilter rebuilt = new BloomFilter(capacity, falsePositiveRate);
+        buckets.values().forEach(bucket -> bucket.forEach(rebuilt::put));
+        filter = rebuilt;
+    }
+
+    private long bucketEnd(long expiresAtMillis) {
+        return (Math.floorDiv(expiresAtMillis, bucketMillis) + 1) * bucketMillis;
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final int capacity;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            this.capacity = Math.max(1, capacity);
+            long optimalBits = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (optimalBits + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * Math.log(2)));
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        void put(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    // Réessayer : un autre bit du même mot a changé entre-temps
+                }
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            long hash = 1125899906842597L;
+            for (int i = 0; i < value.length(); i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            return mix(hash);
+        }
+
+        // Finaliseur de MurmurHash3 : répartit les bits d'entrée sur tout le mot
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb93fe53ce66bL;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
@@ -5,14 +5,19 @@ import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.User.Useverification.Model.DTO.ProfileUpdateDTO;
 import com.User.Useverification.Model.DTO.UserDto;
+import com.User.Useverification.Model.DTO.UserSummaryDto;
 import com.User.Useverification.Model.entity.Role;
 import com.User.Useverification.Model.entity.User;
 import com.User.Useverification.Model.repository.RoleRepository;
@@ -29,19 +34,31 @@ import com.User.Useverification.enums.Status;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.*;
+import java.io.InputStream;
+
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.MediaStore;
+import com.weconnect.media.StoredMedia;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class UserServices {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final EmailService emailService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenUtil jwtTokenUtil;
+    private final MediaStore mediaStore;
+    private final ImageVariants imageVariants;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${users.bulk.max-ids:500}")
+    private int bulkMaxIds;
 
     public ResponseEntity<?> registerUser(RegisterRequest registerRequest) {
         try {
@@ -66,7 +83,7 @@ public class UserServices {
                     .firstName(registerRequest.getFirstName())
                     .lastName(registerRequest.getLastName())
                     .email(registerRequest.getEmail())
-                    .password(passwordEncoder.encode(registerRequest.getPassword()))
+                    .password(passwordHashingService.encode(registerRequest.getPassword()))
                     .createdTimes(new Date())
                     .enabled(false)
                     .verificationCode(verificationCode)
@@ -76,10 +93,15 @@ public class UserServices {
 
             user.setSingleRole(defaultRole);
 
-            userRepository.save(user);
-            sendVerificationEmail(user.getEmail(), verificationCode);
+            // Transaction limitée à l'écriture : pas de connexion tenue pendant le hachage
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(user);
+                sendVerificationEmail(user.getEmail(), verificationCode);
+            });
 
             return ResponseEntity.ok(new ResponseUser(user.getFirstName(), user.getEmail()));
+        } catch (PasswordHashingService.SaturatedException e) {
+            return hashingBusy(e);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -87,6 +109,7 @@ public class UserServices {
         }
     }
 
+    @Transactional
     public void resendOtp(String email) {
         User user = userRepository.findByEmail(email);
         if (user == null) {
@@ -114,7 +137,7 @@ public class UserServices {
             }
 
             // 2. Validate password
-            if (!passwordEncoder.matches(loginRequest.getPassword(), existingUser.getPassword())) {
+            if (!passwordHashingService.matches(loginRequest.getPassword(), existingUser.getPassword())) {
                 throw new RuntimeException("Invalid password");
             }
 
@@ -135,6 +158,11 @@ public class UserServices {
                 throw new RuntimeException("User account is suspended");
             }
 
+            // Coût BCrypt changé depuis l'enregistrement : le mot de passe en clair est disponible ici
+            if (passwordHashingService.needsRehash(existingUser.getPassword())) {
+                rehashPassword(existingUser, loginRequest.getPassword());
+            }
+
 
             // 4. Generate JWT token
             String token = jwtTokenUtil.generateToken(loginRequest.getEmail());
@@ -150,10 +178,28 @@ public class UserServices {
                     .header("Authorization", "Bearer " + token)
                     .body(responseBody);
 
+        } catch (PasswordHashingService.SaturatedException e) {
+            return hashingBusy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+    // Échec sans conséquence : la connexion réussit, le re-hachage sera retenté la fois suivante
+    private void rehashPassword(User user, String rawPassword) {
+        try {
+            user.setPassword(passwordHashingService.encode(rawPassword));
+            userRepository.save(user);
+        } catch (RuntimeException e) {
+            log.debug("Password rehash skipped for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> hashingBusy(PasswordHashingService.SaturatedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
     public void verifyUser(VerifRequest verifRequest) {
         User user = userRepository.findByEmail(verifRequest.getEmail());
         if (user == null) {
@@ -198,6 +244,7 @@ public class UserServices {
         emailService.sendEmail(email, subject, body);
     }
 
+    @Transactional
     public boolean sendOtpForVerification(String email) {
         User user = userRepository.findByEmail(email);
         if (user == null) return false;
@@ -214,6 +261,7 @@ public class UserServices {
         return true;
     }
 
+    @Transactional
     public ResponseEntity<Map<String, String>> generateResetPasswordToken(String email) {
         Map<String, String> response = new HashMap<>();
         User user = userRepository.findByEmail(email);
@@ -286,7 +334,12 @@ public class UserServices {
             return ResponseEntity.badRequest().body(response);
         }
 
-        user.setPassword(passwordEncoder.encode(resetPasswordRequest.getNewPassword()));
+        try {
+            user.setPassword(passwordHashingService.encode(resetPasswordRequest.getNewPassword()));
+        } catch (PasswordHashingService.SaturatedException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+        }
         user.setResetPasswordToken(null);
         user.setResetPasswordTokenExpiration(null);
         userRepository.save(user);
@@ -310,7 +363,11 @@ public class UserServices {
     }
 
     public String deleteUser(Long id) {
+        String image = userRepository.findById(id).map(User::getImage).orElse(null);
         userRepository.deleteById(id);
+        if (image != null && !image.isEmpty()) {
+            removeImageFile(image);
+        }
         return "User deleted";
     }
 
@@ -321,6 +378,53 @@ public class UserServices {
         return userRepository.findByEmail(email);
     }
 
+    /**
+     * Profils publics de plusieurs utilisateurs en une requête, dans l'ordre demandé (doublons
+     * retirés, identifiants inconnus absents). fields : liste séparée par des virgules parmi
+     * UserSummaryDto.FIELDS, tous les champs si vide.
+     */
+    public List<UserSummaryDto> getUserSummaries(List<Long> ids, String fields) {
+        List<Long> distinctIds = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > bulkMaxIds) {
+            throw new IllegalArgumentException("Too many user ids (max " + bulkMaxIds + ")");
+        }
+        Set<String> projection = parseFields(fields);
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, UserSummaryDto> found = new HashMap<>();
+        for (UserSummaryDto summary : userRepository.findSummariesByIdIn(distinctIds)) {
+            found.put(summary.getId(), summary);
+        }
+        List<UserSummaryDto> result = new ArrayList<>(found.size());
+        for (Long id : distinctIds) {
+            UserSummaryDto summary = found.get(id);
+            if (summary != null) {
+                result.add(projection == null ? summary : summary.project(projection));
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> projection = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!UserSummaryDto.FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + " (allowed: " + UserSummaryDto.FIELDS + ")");
+            }
+            projection.add(name);
+        }
+        return projection;
+    }
+
    public List<UserDto> getAllUsers() {
     return userRepository.findAll()
         .stream()
@@ -343,20 +447,18 @@ public String uploadImage(Long userId, MultipartFile file) throws IOException {
 
     User user = userOptional.get();
 
-    // Use absolute path for reliability
-    Path uploadPath = Paths.get(System.getProperty("user.dir"), "uploads");
-    if (!Files.exists(uploadPath)) {
-        Files.createDirectories(uploadPath);
+    // Stocké une seule fois par contenu (SHA-256), sous un nom stable
+    StoredMedia media;
+    try (InputStream content = file.getInputStream()) {
+        media = mediaStore.store(content, file.getOriginalFilename());
     }
-
-    String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-    Path filePath = uploadPath.resolve(filename);
-    Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    // Variantes réduites générées en arrière-plan, servies via ?w=
+    imageVariants.generateAsync(media.filename());
 
     // Save full URL instead of just filename
     String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
             .path("/uploads/")
-            .path(filename)
+            .path(media.filename())
             .toUriString();
 
     // Remove old image if exists
@@ -394,18 +496,8 @@ public boolean removeImage(Long userId) throws IOException {
 
 private boolean removeImageFile(String imageUrl) {
     try {
-        // Extract filename from URL
-        String filename = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-
-        // Create path to the file
-        Path filePath = Paths.get(System.getProperty("user.dir"), "uploads", filename);
-
-        // Delete the file if it exists
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
-            return true;
-        }
-        return false;
+        // Retire la référence ; le fichier n'est supprimé que s'il n'est plus utilisé
+        return mediaStore.release(MediaStore.filenameFromUrl(imageUrl));
     } catch (Exception e) {
         e.printStackTrace();
         return false;
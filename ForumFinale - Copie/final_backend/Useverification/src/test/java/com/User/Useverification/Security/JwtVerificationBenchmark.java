@@ -0,0 +1,94 @@
+package com.User.Useverification.Security;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.User.Useverification.Model.entity.Role;
+import com.User.Useverification.Model.entity.User;
+import com.User.Useverification.Model.repository.UserRepository;
+
+/**
+ * Coût de l'authentification d'une requête par JwtAuthenticationFilter :
+ * l'ancien chemin (validateToken + extractUsername + extractRoles, trois décodages),
+ * un seul décodage (parseVerified), et un token déjà en cache (empreinte SHA-256 seule).
+ *
+ * <p>Lancement, depuis Useverification (la JVM forkée par JMH reprend le classpath) :
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.User.Useverification.Security.JwtVerificationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtTokenUtil jwtTokenUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        User user = User.builder().id(42L).email("bench@example.com").roles(Set.of(role)).build();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(user);
+
+        jwtTokenUtil = new JwtTokenUtil("benchmark-secret-benchmark-secret-0123");
+        ReflectionTestUtils.setField(jwtTokenUtil, "userRepository", userRepository);
+        token = jwtTokenUtil.generateToken(user.getEmail());
+
+        verifiedTokenCache = new VerifiedTokenCache(jwtTokenUtil, 10_000);
+        verifiedTokenCache.verify(token);
+    }
+
+    @Benchmark
+    public void tripleParse(Blackhole blackhole) {
+        if (jwtTokenUtil.validateToken(token)) {
+            String username = jwtTokenUtil.extractUsername(token);
+            List<String> roles = jwtTokenUtil.extractRoles(token);
+            blackhole.consume(username);
+            blackhole.consume(roles);
+        }
+    }
+
+    @Benchmark
+    public JwtPrincipal singleParse() {
+        return jwtTokenUtil.parseVerified(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal cachedPrincipal() {
+        return verifiedTokenCache.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.User.Useverification.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.User.Useverification.Model.entity.OutboxEmail;
+import com.User.Useverification.Model.repository.EmailOutboxRepository;
+import com.User.Useverification.enums.EmailStatus;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private List<OutboxEmail> batch;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        batch = List.of(pending(1L, "first@example.com", now), pending(2L, "second@example.com", now));
+        when(repository.findDueIds(eq(EmailStatus.PENDING), any(), any())).thenReturn(List.of(1L, 2L), List.of());
+        when(repository.claim(anyList(), eq(EmailStatus.PENDING), any(), anyString(), any())).thenReturn(2);
+        when(repository.findByClaimToken(anyString())).thenReturn(batch);
+    }
+
+    @Test
+    void sendsClaimedBatchOverSmtp() throws Exception {
+        EmailOutboxDispatcher dispatcher = dispatcher(ServerSetupTest.SMTP.getPort());
+
+        assertEquals(2, dispatcher.dispatch());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("Verify Your Email Address", received[0].getSubject());
+        batch.forEach(email -> {
+            assertEquals(EmailStatus.SENT, email.getStatus());
+            assertEquals(1, email.getAttempts());
+        });
+        assertEquals(2, meterRegistry.counter("users.email.outbox.sent").count());
+    }
+
+    @Test
+    void reschedulesWithBackoffWhenSmtpIsDown() {
+        // Aucun serveur sur ce port
+        EmailOutboxDispatcher dispatcher = dispatcher(ServerSetupTest.SMTP.getPort() + 1);
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(0, dispatcher.dispatch());
+
+        batch.forEach(email -> {
+            assertEquals(EmailStatus.PENDING, email.getStatus());
+            assertEquals(1, email.getAttempts());
+            assertTrue(email.getNextAttemptAt().isAfter(before.plusSeconds(29)));
+        });
+        assertEquals(2, meterRegistry.counter("users.email.outbox.retried").count());
+    }
+
+    private EmailOutboxDispatcher dispatcher(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(port);
+        return new EmailOutboxDispatcher(repository, mailSender, meterRegistry,
+                "noreply@example.com", 20, 8, 30, 3600, 300, 7);
+    }
+
+    private static OutboxEmail pending(Long id, String recipient, LocalDateTime now) {
+        return OutboxEmail.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Verify Your Email Address")
+                .body("<p>123456</p>")
+                .status(EmailStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
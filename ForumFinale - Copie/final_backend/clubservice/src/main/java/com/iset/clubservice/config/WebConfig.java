@@ -1,5 +1,7 @@
 package com.iset.clubservice.config;
 
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.spring.ImageVariantResourceResolver;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -8,10 +10,18 @@ import java.nio.file.Paths;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ImageVariants imageVariants;
+
+    public WebConfig(ImageVariants imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         String uploadDir = Paths.get("uploads").toAbsolutePath().toString();
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadDir + "/");
+                .addResourceLocations("file:" + uploadDir + "/")
+                .resourceChain(false)
+                .addResolver(new ImageVariantResourceResolver(imageVariants));
     }
 }
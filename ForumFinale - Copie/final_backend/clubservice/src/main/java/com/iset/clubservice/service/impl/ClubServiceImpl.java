@@ -15,6 +15,9 @@ import com.iset.clubservice.repository.ClubRepository;
 import com.iset.clubservice.repository.MembreClubRepository;
 import com.iset.clubservice.service.ClubService;
 
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.MediaStore;
+import com.weconnect.media.StoredMedia;
 import lombok.AllArgsConstructor;
 
 
@@ -23,12 +26,8 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -52,6 +51,12 @@ public class ClubServiceImpl implements ClubService {
 
     private UserClient userClient;
 
+
+    private MediaStore mediaStore;
+
+
+    private ImageVariants imageVariants;
+
     @Override
     public ClubDto createClub(ClubDto dto) {
         // Vérifier si le créateur existe
@@ -103,7 +108,11 @@ public class ClubServiceImpl implements ClubService {
 
     @Override
     public void deleteClub(Long id) {
+        String image = clubRepository.findById(id).map(Club::getImage).orElse(null);
         clubRepository.deleteById(id);
+        if (image != null && !image.isEmpty()) {
+            removeImageFile(image);
+        }
     }
 
     @Override
@@ -298,20 +307,18 @@ public class ClubServiceImpl implements ClubService {
             throw new IllegalArgumentException("Only image files are allowed.");
         }
 
-        // Use absolute path for reliability
-        Path uploadPath = Paths.get(System.getProperty("user.dir"), "uploads");
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        // Stocké une seule fois par contenu (SHA-256), sous un nom stable
+        StoredMedia media;
+        try (InputStream content = file.getInputStream()) {
+            media = mediaStore.store(content, file.getOriginalFilename());
         }
-
-        String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path filePath = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Variantes réduites générées en arrière-plan, servies via ?w=
+        imageVariants.generateAsync(media.filename());
 
         // Save full URL instead of just filename
         String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
                 .path("/uploads/")
-                .path(filename)
+                .path(media.filename())
                 .toUriString();
 
         // Remove old image if exists
@@ -346,18 +353,8 @@ public class ClubServiceImpl implements ClubService {
 
     private boolean removeImageFile(String imageUrl) {
         try {
-            // Extract filename from URL
-            String filename = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-
-            // Create path to the file
-            Path filePath = Paths.get(System.getProperty("user.dir"), "uploads", filename);
-
-            // Delete the file if it exists
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-                return true;
-            }
-            return false;
+            // Retire la référence ; le fichier n'est supprimé que s'il n'est plus utilisé
+            return mediaStore.release(MediaStore.filenameFromUrl(imageUrl));
         } catch (Exception e) {
             e.printStackTrace();
             return false;
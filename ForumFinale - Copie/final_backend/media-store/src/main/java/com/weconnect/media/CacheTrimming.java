@@ -0,0 +1,32 @@
+package com.weconnect.media;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Éviction partagée par les caches locaux bornés des services (profils de postService,
+ * tokens vérifiés de Useverification), à appeler quand le cache atteint sa taille maximale.
+ */
+public final class CacheTrimming {
+
+    private CacheTrimming() {
+    }
+
+    /**
+     * Retire les entrées expirées ; si le cache reste plein, retire en plus un dixième
+     * des entrées, dans l'ordre d'itération de la map.
+     */
+    public static <K, V> void trim(Map<K, V> entries, int maxEntries, Predicate<? super V> expired) {
+        entries.values().removeIf(expired);
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<K> keys = entries.keySet().iterator();
+        while (excess-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.weconnect.media;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Variantes réduites des images du {@link MediaStore} (par exemple 160, 480 et 1080 px de
+ * large), générées en arrière-plan avec ImageIO sur un pool borné.
+ *
+ * <p>Le décodage est sous-échantillonné à la lecture pour ne pas charger en mémoire une photo
+ * pleine résolution, puis chaque largeur est dérivée de la précédente, de la plus grande à
+ * la plus petite. Aucune variante n'est plus large que l'original. Un marqueur {@code done}
+ * indique que la génération est terminée, y compris quand aucune variante ne s'applique
+ * (petite image, format non décodable), pour ne pas la relancer.
+ *
+ * <p>Les dimensions sont lues dans l'en-tête avant tout décodage : une image de plus de
+ * {@code maxSourcePixels} pixels n'est pas décodée (bombe de décompression) et garde son
+ * original comme seule version.
+ *
+ * <p>Quand la file est pleine, la demande est abandonnée : l'original reste servi et la
+ * génération est redemandée au prochain accès à une variante.
+ */
+public class ImageVariants implements AutoCloseable {
+
+    private static final System.Logger LOG = System.getLogger(ImageVariants.class.getName());
+
+    private static final String DONE_MARKER = "done";
+    private static final Set<String> SOURCE_FORMATS = Set.of("jpg", "png", "gif", "bmp");
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final MediaStore store;
+    private final int[] widths;
+    private final long maxSourcePixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageVariants(MediaStore store, int[] widths, long maxSourcePixels, int threads, int queueCapacity) {
+        this.store = store;
+        this.widths = Arrays.stream(widths).filter(width -> width > 0).distinct().sorted().toArray();
+        this.maxSourcePixels = maxSourcePixels;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "media-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+    }
+
+    /**
+     * Programme la génération des variantes d'un fichier du store, sauf si elle est déjà
+     * faite ou en cours. Retourne immédiatement.
+     */
+    public void generateAsync(String filename) {
+        if (widths.length == 0 || !isSourceImage(filename) || isDone(filename) || !pending.add(filename)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(filename);
+                } catch (Exception e) {
+                    LOG.log(System.Logger.Level.WARNING, "Could not derive variants of {0}: {1}", filename, e.toString());
+                } finally {
+                    pending.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(filename);
+            LOG.log(System.Logger.Level.DEBUG, "Variant queue full, skipping {0}", filename);
+        }
+    }
+
+    /**
+     * Variante la plus petite d'au moins {@code width} pixels. Vide si l'original convient
+     * (largeur demandée au-delà des variantes, image trop petite) ou si la variante n'est pas
+     * encore prête ; dans ce dernier cas la génération est programmée.
+     */
+    public Optional<Path> resolve(String filename, int width) {
+        if (!isSourceImage(filename)) {
+            return Optional.empty();
+        }
+        int target = normalizeWidth(width);
+        if (target < 0) {
+            return Optional.empty();
+        }
+        Path variant = variantPath(filename, target);
+        if (Files.isRegularFile(variant)) {
+            return Optional.of(variant);
+        }
+        if (!isDone(filename) && store.resolve(filename).isPresent()) {
+            generateAsync(filename);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Largeur de variante servie pour une largeur demandée, ou -1 pour l'original. Permet aux
+     * appelants de borner leurs clés de cache au nombre de variantes.
+     */
+    public int normalizeWidth(int width) {
+        if (width > 0) {
+            for (int candidate : widths) {
+                if (candidate >= width) {
+                    return candidate;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * True quand la génération est terminée : une variante absente ne viendra plus et
+     * l'original peut être servi (et mis en cache) à sa place.
+     */
+    public boolean isGenerated(String filename) {
+        return isSourceImage(filename) && isDone(filename);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void generate(String filename) throws IOException {
+        Optional<Path> source = store.resolve(filename);
+        if (source.isEmpty()) {
+            return;
+        }
+        Path dir = store.variantDir(filename);
+        Files.createDirectories(dir);
+
+        BufferedImage image = decode(source.get(), widths[widths.length - 1], maxSourcePixels);
+        if (image != null) {
+            String format = variantFormat(filename);
+            // De la plus grande à la plus petite : chaque variante part de la précédente
+            for (int i = widths.length - 1; i >= 0; i--) {
+                int width = widths[i];
+                if (image.getWidth() <= width) {
+                    continue;
+                }
+                image = scale(image, width, format.equals("jpg"));
+                write(image, format, variantPath(filename, width));
+            }
+        }
+        Files.writeString(dir.resolve(DONE_MARKER), "");
+
+        // Blob libéré pendant la génération : ne pas laisser de variantes orphelines
+        if (store.resolve(filename).isEmpty()) {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // Décode en sautant des pixels à la lecture, juste assez pour garder au moins 2x la cible.
+    // Null si le format n'est pas lisible ou si l'en-tête annonce plus de maxPixels pixels.
+    static BufferedImage decode(Path source, int largestWidth, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    LOG.log(System.Logger.Level.WARNING, "Image {0} is {1}x{2} px, over the {3} px limit: no variants",
+                            source.getFileName(), sourceWidth, sourceHeight, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / (largestWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Réduction par moitiés successives (bilinéaire) : plus net qu'un seul grand saut
+    private static BufferedImage scale(BufferedImage image, int targetWidth, boolean opaque) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    // Écrit dans le répertoire temporaire du store puis déplace atomiquement
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Path temp = Files.createTempFile(store.getTempDir(), "variant-", ".part");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (format.equals("jpg")) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path variantPath(String filename, int width) {
+        return store.variantDir(filename).resolve(width + "." + variantFormat(filename));
+    }
+
+    private boolean isDone(String filename) {
+        return Files.exists(store.variantDir(filename).resolve(DONE_MARKER));
+    }
+
+    private static boolean isSourceImage(String filename) {
+        return MediaStore.isValidName(filename) && SOURCE_FORMATS.contains(extension(filename));
+    }
+
+    // Les JPEG restent en JPEG ; les autres formats (transparence possible) passent en PNG
+    private static String variantFormat(String filename) {
+        return extension(filename).equals("jpg") ? "jpg" : "png";
+    }
+
+    private static String extension(String filename) {
+        String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return extension.equals("jpeg") ? "jpg" : extension;
+    }
+}
@@ -0,0 +1,264 @@
+package com.weconnect.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage de médias adressé par contenu.
+ *
+ * <p>Chaque envoi est copié en flux dans un fichier temporaire tout en calculant son
+ * SHA-256, puis déplacé atomiquement sous {@code <racine>/<hash>.<extension>}. Un contenu
+ * déjà présent n'est pas réécrit : le fichier temporaire est simplement supprimé.
+ *
+ * <p>Chaque blob porte un compteur de références ({@code <racine>/.media/refs}). Le blob est
+ * supprimé quand le dernier propriétaire le libère. Les mises à jour du compteur sont
+ * sérialisées par un verrou mémoire et par un verrou de fichier, ce qui permet à plusieurs
+ * services de partager le même répertoire.
+ *
+ * <p>Les fichiers antérieurs au store (noms aléatoires, sans compteur) sont considérés comme
+ * ayant une seule référence : les libérer les supprime, comme auparavant.
+ *
+ * <p>Les variantes dérivées d'un blob ({@link ImageVariants}) sont rangées sous
+ * {@code <racine>/.media/variants/<nom>/} et supprimées avec lui.
+ */
+public class MediaStore {
+
+    private static final System.Logger LOG = System.getLogger(MediaStore.class.getName());
+
+    private static final String META_DIR = ".media";
+    private static final int LOCK_STRIPES = 64;
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+
+    private final Path root;
+    private final Path tempDir;
+    private final Path refsDir;
+    private final Path variantsDir;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public MediaStore(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.tempDir = this.root.resolve(META_DIR).resolve("tmp");
+        this.refsDir = this.root.resolve(META_DIR).resolve("refs");
+        this.variantsDir = this.root.resolve(META_DIR).resolve("variants");
+        Files.createDirectories(tempDir);
+        Files.createDirectories(refsDir);
+        Files.createDirectories(variantsDir);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Stocke le contenu et ajoute une référence à son blob.
+     * Le flux est lu une seule fois ; il n'est jamais chargé entièrement en mémoire.
+     */
+    public StoredMedia store(InputStream content, String originalFilename) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = in.transferTo(out);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String filename = hash + extensionOf(originalFilename);
+            Path target = root.resolve(filename);
+
+            boolean[] deduplicated = new boolean[1];
+            updateRefs(filename, exists -> {
+                deduplicated[0] = exists;
+                if (!exists) {
+                    try {
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (FileAlreadyExistsException e) {
+                        // Écrit entre-temps par un processus ne partageant pas le verrou
+                        deduplicated[0] = true;
+                    }
+                }
+                return 1;
+            });
+            return new StoredMedia(hash, filename, size, deduplicated[0]);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Ajoute une référence à un média déjà stocké (par exemple une URL réutilisée).
+     * Retourne false si le fichier n'existe pas.
+     */
+    public boolean acquire(String filename) throws IOException {
+        if (!isValidName(filename) || !Files.exists(root.resolve(filename))) {
+            return false;
+        }
+        updateRefs(filename, exists -> exists ? 1 : 0);
+        return true;
+    }
+
+    /**
+     * Retire une référence ; le fichier est supprimé quand il n'en reste aucune.
+     * Retourne true si une référence a été retirée (fichier présent), qu'il soit supprimé ou
+     * encore partagé.
+     */
+    public boolean release(String filename) throws IOException {
+        if (!isValidName(filename)) {
+            return false;
+        }
+        boolean[] existed = new boolean[1];
+        updateRefs(filename, exists -> {
+            existed[0] = exists;
+            return exists ? -1 : 0;
+        });
+        return existed[0];
+    }
+
+    /**
+     * Fichier servi pour ce nom, s'il existe dans le store.
+     */
+    public Optional<Path> resolve(String filename) {
+        if (!isValidName(filename)) {
+            return Optional.empty();
+        }
+        Path file = root.resolve(filename);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Nom de fichier désigné par une URL de média (dernier segment, sans paramètres).
+     */
+    public static String filenameFromUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String path = url;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        int fragment = path.indexOf('#');
+        if (fragment >= 0) {
+            path = path.substring(0, fragment);
+        }
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    // Répertoire des variantes d'un blob (nom déjà validé par l'appelant)
+    Path variantDir(String filename) {
+        return variantsDir.resolve(filename);
+    }
+
+    Path getTempDir() {
+        return tempDir;
+    }
+
+    static boolean isValidName(String filename) {
+        return filename != null && !filename.isBlank()
+                && !filename.contains("/") && !filename.contains("\\")
+                && !filename.startsWith(".") && !filename.contains("..");
+    }
+
+    private void deleteVariants(String filename) {
+        Path dir = variantDir(filename);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(dir)) {
+            for (Path variant : variants) {
+                Files.deleteIfExists(variant);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Could not delete variants of {0}: {1}", filename, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RefUpdate {
+        // Reçoit l'existence du blob, retourne la variation du compteur
+        int apply(boolean blobExists) throws IOException;
+    }
+
+    /**
+     * Applique une variation au compteur d'un blob et retourne la nouvelle valeur. La mise à
+     * jour, et l'action éventuelle sur le blob, s'exécutent sous un verrou mémoire (threads du
+     * service) puis un verrou de fichier (autres services partageant le répertoire). Un
+     * compteur vide désigne un fichier antérieur au store : une référence s'il existe.
+     * Quand le compteur retombe à zéro, le blob est supprimé avant de rendre les verrous.
+     */
+    private int updateRefs(String filename, RefUpdate update) throws IOException {
+        Path blob = root.resolve(filename);
+        ReentrantLock lock = locks[Math.floorMod(filename.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(refsDir.resolve(filename + ".refs"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate(20);
+            channel.read(buffer, 0);
+            String raw = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+            boolean exists = Files.exists(blob);
+            int current = raw.isEmpty() ? (exists ? 1 : 0) : Integer.parseInt(raw);
+            if (!exists && current > 0) {
+                // Fichier supprimé hors du store : le compteur repart de zéro
+                LOG.log(System.Logger.Level.WARNING, "Media {0} missing with {1} references", filename, current);
+                current = 0;
+            }
+
+            int updated = Math.max(0, current + update.apply(exists));
+            if (updated == 0 && exists) {
+                Files.deleteIfExists(blob);
+                deleteVariants(filename);
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(Integer.toString(updated).getBytes(StandardCharsets.US_ASCII)), 0);
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Extension normalisée pour que .JPG, .jpeg et .jpg d'un même contenu partagent un blob
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null || originalFilename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.') + 1)
+                .toLowerCase(Locale.ROOT);
+        if (extension.equals("jpeg")) {
+            extension = "jpg";
+        }
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
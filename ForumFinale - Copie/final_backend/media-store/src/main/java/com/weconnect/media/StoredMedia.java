@@ -0,0 +1,12 @@
+package com.weconnect.media;
+
+/**
+ * Résultat d'un dépôt dans le MediaStore.
+ *
+ * @param hash         empreinte SHA-256 du contenu (hexadécimal)
+ * @param filename     nom stable du fichier servi : {@code <hash>.<extension>}
+ * @param size         taille en octets
+ * @param deduplicated true si un contenu identique était déjà stocké (aucune écriture du blob)
+ */
+public record StoredMedia(String hash, String filename, long size, boolean deduplicated) {
+}
@@ -0,0 +1,50 @@
+package com.weconnect.media.spring;
+
+import com.weconnect.media.ImageVariants;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * Sert la variante réduite d'une image de /uploads quand la requête porte ?w=&lt;largeur&gt;.
+ * Sans variante prête (génération en cours, image déjà petite), l'original est servi.
+ */
+public class ImageVariantResourceResolver extends AbstractResourceResolver {
+
+    private final ImageVariants imageVariants;
+
+    public ImageVariantResourceResolver(ImageVariants imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource original = chain.resolveResource(request, requestPath, locations);
+        if (original == null || request == null || requestPath.contains("/")) {
+            return original;
+        }
+        String width = request.getParameter("w");
+        if (width == null) {
+            return original;
+        }
+        try {
+            return imageVariants.resolve(requestPath, Integer.parseInt(width))
+                    .<Resource>map(FileSystemResource::new)
+                    .orElse(original);
+        } catch (NumberFormatException e) {
+            return original;
+        }
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+}
@@ -0,0 +1,38 @@
+package com.weconnect.media.spring;
+
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.MediaStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Beans {@link MediaStore} et {@link ImageVariants} communs aux services, à importer avec
+ * {@code @Import(MediaStoreConfiguration.class)}.
+ */
+@Configuration
+public class MediaStoreConfiguration {
+
+    // Même répertoire que les fichiers existants : les anciennes URL restent servies
+    @Bean
+    public MediaStore mediaStore(@Value("${file.upload-dir:uploads}") String uploadDir) throws IOException {
+        File uploadDirFile = new File(uploadDir);
+        if (!uploadDirFile.isAbsolute()) {
+            uploadDirFile = new File(System.getProperty("user.dir"), uploadDir);
+        }
+        return new MediaStore(uploadDirFile.toPath());
+    }
+
+    // Miniatures générées en arrière-plan après chaque upload, servies via le paramètre ?w=
+    @Bean
+    public ImageVariants imageVariants(MediaStore mediaStore,
+                                       @Value("${media.variants.widths:160,480,1080}") int[] widths,
+                                       @Value("${media.variants.max-source-pixels:50000000}") long maxSourcePixels,
+                                       @Value("${media.variants.threads:2}") int threads,
+                                       @Value("${media.variants.queue-capacity:100}") int queueCapacity) {
+        return new ImageVariants(mediaStore, widths, maxSourcePixels, threads, queueCapacity);
+    }
+}
@@ -0,0 +1,139 @@
+package com.weconnect.media;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageVariantsTest {
+
+    @TempDir
+    Path root;
+
+    private MediaStore store;
+    private ImageVariants variants;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new MediaStore(root);
+        variants = new ImageVariants(store, new int[] {40, 100, 0}, 10_000, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        variants.close();
+    }
+
+    @Test
+    void derivesEachVariantNarrowerThanTheOriginal() throws Exception {
+        String filename = storePng(80, 60);
+
+        generate(filename);
+
+        assertEquals(40, ImageIO.read(variants.resolve(filename, 30).orElseThrow().toFile()).getWidth());
+        // 100 px dépasse l'original : l'original est servi
+        assertTrue(variants.resolve(filename, 90).isEmpty());
+        assertTrue(variants.resolve(filename, 500).isEmpty());
+    }
+
+    @Test
+    void imageOverThePixelLimitIsNotDecoded() throws Exception {
+        // 120 x 100 = 12 000 px, au-delà des 10 000 autorisés
+        String filename = storePng(120, 100);
+
+        generate(filename);
+
+        assertTrue(variants.resolve(filename, 40).isEmpty());
+        assertTrue(variants.isGenerated(filename));
+    }
+
+    @Test
+    void dimensionsAreCheckedFromTheHeaderBeforeAllocating() throws Exception {
+        // En-tête PNG annonçant 100 000 x 100 000 px, sans données d'image
+        Path bomb = root.resolve("bomb.png");
+        Files.write(bomb, pngHeader(100_000, 100_000));
+
+        assertNull(ImageVariants.decode(bomb, 1080, 50_000_000L));
+    }
+
+    @Test
+    void widthsAreNormalizedToConfiguredVariants() {
+        assertEquals(40, variants.normalizeWidth(1));
+        assertEquals(100, variants.normalizeWidth(41));
+        assertEquals(-1, variants.normalizeWidth(101));
+        assertEquals(-1, variants.normalizeWidth(0));
+    }
+
+    @Test
+    void smallImageIsDecodedWithinLimit() throws Exception {
+        String filename = storePng(20, 10);
+
+        BufferedImage image = ImageVariants.decode(store.resolve(filename).orElseThrow(), 100, 10_000);
+
+        assertNotNull(image);
+        assertEquals(20, image.getWidth());
+        generate(filename);
+        assertTrue(variants.resolve(filename, 40).isEmpty());
+    }
+
+    @Test
+    void nonImageFilesAreIgnored() throws Exception {
+        String filename = store.store(new ByteArrayInputStream("text".getBytes(StandardCharsets.UTF_8)), "a.txt").filename();
+
+        variants.generateAsync(filename);
+
+        assertFalse(variants.isGenerated(filename));
+    }
+
+    private String storePng(int width, int height) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", png);
+        return store.store(new ByteArrayInputStream(png.toByteArray()), "image.png").filename();
+    }
+
+    // Lance la génération et attend son marqueur de fin
+    private void generate(String filename) throws InterruptedException {
+        variants.generateAsync(filename);
+        for (int i = 0; i < 200 && !variants.isGenerated(filename); i++) {
+            Thread.sleep(25);
+        }
+        assertTrue(variants.isGenerated(filename));
+    }
+
+    private static byte[] pngHeader(int width, int height) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        DataOutputStream ihdr = new DataOutputStream(chunk);
+        ihdr.writeBytes("IHDR");
+        ihdr.writeInt(width);
+        ihdr.writeInt(height);
+        // 8 bits, RGB, compression, filtre et entrelacement par défaut
+        ihdr.write(new byte[] {8, 2, 0, 0, 0});
+        byte[] data = chunk.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        out.writeInt(data.length - 4);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,94 @@
+package com.weconnect.media;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaStoreTest {
+
+    @TempDir
+    Path root;
+
+    private MediaStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new MediaStore(root);
+    }
+
+    @Test
+    void identicalContentSharesOneBlob() throws IOException {
+        StoredMedia first = store.store(content("same bytes"), "photo.JPEG");
+        StoredMedia second = store.store(content("same bytes"), "copy.jpg");
+
+        assertEquals(first.filename(), second.filename());
+        assertTrue(first.filename().endsWith(".jpg"));
+        assertFalse(first.deduplicated());
+        assertTrue(second.deduplicated());
+        assertEquals(10, second.size());
+    }
+
+    @Test
+    void blobIsDeletedWithItsLastReference() throws IOException {
+        String filename = store.store(content("shared"), "a.png").filename();
+        store.store(content("shared"), "b.png");
+        assertTrue(store.acquire(filename));
+
+        assertTrue(store.release(filename));
+        assertTrue(store.release(filename));
+        assertTrue(store.resolve(filename).isPresent());
+
+        assertTrue(store.release(filename));
+        assertTrue(store.resolve(filename).isEmpty());
+        assertFalse(store.release(filename));
+    }
+
+    @Test
+    void missingOrInvalidFilesCannotBeAcquired() throws IOException {
+        assertFalse(store.acquire("0123456789abcdef.png"));
+        assertFalse(store.acquire("../outside.png"));
+        assertFalse(store.release("../outside.png"));
+    }
+
+    @Test
+    void legacyFileWithoutCounterHasOneReference() throws IOException {
+        Files.writeString(root.resolve("legacy-upload.png"), "legacy");
+
+        assertTrue(store.release("legacy-upload.png"));
+        assertFalse(Files.exists(root.resolve("legacy-upload.png")));
+    }
+
+    @Test
+    void variantsAreDeletedWithTheBlob() throws IOException {
+        String filename = store.store(content("image"), "a.png").filename();
+        Path variants = store.variantDir(filename);
+        Files.createDirectories(variants);
+        Files.writeString(variants.resolve("160.png"), "variant");
+
+        store.release(filename);
+
+        assertFalse(Files.exists(variants));
+    }
+
+    @Test
+    void filenameIsTakenFromRelativeAndAbsoluteUrls() {
+        assertEquals("abc.png", MediaStore.filenameFromUrl("/api/uploads/abc.png"));
+        assertEquals("abc.png", MediaStore.filenameFromUrl("http://localhost:8082/api/uploads/abc.png?w=480"));
+        assertNull(MediaStore.filenameFromUrl(" "));
+    }
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
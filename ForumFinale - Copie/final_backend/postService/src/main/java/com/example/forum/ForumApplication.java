@@ -1,11 +1,14 @@
 package com.example.forum;
 
+import com.weconnect.media.spring.MediaStoreConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
 @EnableFeignClients(basePackages = "com.example.forum.client")
+@Import(MediaStoreConfiguration.class)
 public class ForumApplication {
 
 	public static void main(String[] args) {
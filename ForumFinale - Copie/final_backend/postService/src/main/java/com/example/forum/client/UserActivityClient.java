@@ -1,14 +1,16 @@
 package com.example.forum.client;
 
+import com.example.forum.dto.CursorPage;
 import com.example.forum.model.UserActivity;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-
-import java.util.List;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @FeignClient(name = "forum-api", url = "${forum.api.url:http://localhost:8082}")
 public interface UserActivityClient {
     @GetMapping("/api/user-activities/{userId}")
-    List<UserActivity> getUserActivities(@PathVariable("userId") Long userId);
+    CursorPage<UserActivity> getUserActivities(@PathVariable("userId") Long userId,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "size", required = false) Integer size);
 }
@@ -1,15 +1,31 @@
 package com.example.forum.client;
 
+import com.example.forum.dto.TokenStatus;
 import com.example.forum.dto.UserDTO;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @FeignClient(
     name = "useverification",
     url = "http://localhost:9191"
 )
 public interface UserClient {
+    // options : délais propres à l'appel (budget restant de la requête), prioritaires sur la configuration
     @GetMapping("/api/users/{id}")
-    UserDTO getUserById(@PathVariable("id") Long id);
+    UserDTO getUserById(@PathVariable("id") Long id, Request.Options options);
+
+    // Résolution groupée : un seul aller-retour pour plusieurs utilisateurs
+    @PostMapping("/api/users/bulk")
+    List<UserDTO> getUsersByIds(@RequestBody List<Long> ids, Request.Options options);
+
+    // Révocation (déconnexion) d'un token, vérifiée avant les actions d'administration
+    @GetMapping("/api/auth/revocations/{tokenId}")
+    TokenStatus getTokenStatus(@PathVariable("tokenId") String tokenId, @RequestParam("expiresAt") long expiresAt);
 }
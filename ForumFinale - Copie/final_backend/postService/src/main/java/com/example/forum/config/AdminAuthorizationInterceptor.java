@@ -0,0 +1,105 @@
+package com.example.forum.config;
+
+import com.example.forum.client.UserClient;
+import com.example.forum.dto.TokenStatus;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Réserve les endpoints /api/posts/admin/** aux administrateurs : la requête doit porter le JWT
+ * émis par Useverification (en-tête {@code Authorization: Bearer ...}), signé avec le secret
+ * partagé {@code jwt.secret}, avec une expiration et un identifiant, le rôle administrateur
+ * dans son claim {@code roles}, et ne pas avoir été révoqué (déconnexion) côté Useverification.
+ * Sans token valide : 401 ; sans le rôle : 403 ; révocation invérifiable : 503.
+ */
+@Component
+@Slf4j
+public class AdminAuthorizationInterceptor implements HandlerInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtParser parser;
+    private final String adminRole;
+    private final UserClient userClient;
+
+    public AdminAuthorizationInterceptor(@Value("${jwt.secret}") String secret,
+                                         @Value("${forum.admin.role:ROLE_ADMIN}") String adminRole,
+                                         // Feign dépend de la configuration MVC qui enregistre cet intercepteur
+                                         @Lazy UserClient userClient) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.adminRole = adminRole;
+        this.userClient = userClient;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        Claims claims = authorization != null && authorization.startsWith(BEARER_PREFIX)
+                ? verifiedClaims(authorization.substring(BEARER_PREFIX.length()).trim())
+                : null;
+        if (claims == null) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Token administrateur requis");
+            return false;
+        }
+        if (!hasAdminRole(claims)) {
+            log.warn("Admin endpoint {} refused for {}", request.getRequestURI(), claims.getSubject());
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Rôle administrateur requis");
+            return false;
+        }
+
+        TokenStatus status;
+        try {
+            status = userClient.getTokenStatus(claims.getId(), claims.getExpiration().getTime());
+        } catch (RuntimeException e) {
+            // Sans réponse de Useverification, un token révoqué ne doit pas passer
+            log.warn("Could not check revocation of admin token: {}", e.getMessage());
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Vérification du token impossible");
+            return false;
+        }
+        if (status == null || status.isRevoked()) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Token révoqué");
+            return false;
+        }
+        return true;
+    }
+
+    // Claims d'un token signé, non expiré, portant exp et jti ; null sinon
+    private Claims verifiedClaims(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null || claims.getId() == null) {
+                return null;
+            }
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean hasAdminRole(Claims claims) {
+        return claims.get("roles") instanceof List<?> roles
+                && roles.stream().anyMatch(role -> adminRole.equals(String.valueOf(role)));
+    }
+}
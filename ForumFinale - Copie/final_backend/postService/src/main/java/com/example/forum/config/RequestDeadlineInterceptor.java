@@ -0,0 +1,40 @@
+package com.example.forum.config;
+
+import com.example.forum.service.RequestDeadline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Donne à chaque requête un budget de temps pour ses appels à Useverification.
+ */
+@Component
+public class RequestDeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    private final Duration budget;
+
+    public RequestDeadlineInterceptor(@Value("${forum.users.remote.request-budget-ms:2500}") long budgetMs) {
+        this.budget = Duration.ofMillis(budgetMs);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.start(budget);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    // Requête asynchrone (flux SSE) : le thread Tomcat est rendu sans passer par afterCompletion
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+}
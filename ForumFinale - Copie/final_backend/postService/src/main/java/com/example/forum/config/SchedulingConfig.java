@@ -0,0 +1,30 @@
+package com.example.forum.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Planificateur par défaut des tâches @Scheduled
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("forum-scheduler-");
+        return scheduler;
+    }
+
+    // Thread dédié et de basse priorité pour la réconciliation des compteurs
+    @Bean
+    public ThreadPoolTaskScheduler counterReconcilerScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadPriority(Thread.MIN_PRIORITY);
+        scheduler.setThreadNamePrefix("counter-reconciler-");
+        return scheduler;
+    }
+}
@@ -2,7 +2,9 @@ package com.example.forum.controller;
 
 import com.example.forum.model.Comment;
 import com.example.forum.service.CommentService;
+import com.example.forum.service.PostService;
 import com.example.forum.service.UserService;
+import com.example.forum.dto.CursorPage;
 import com.example.forum.dto.UserDTO;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -43,22 +45,46 @@ public class CommentController {
     @Autowired
     private UserService userService;
 
-    private CommentDTO mapToDto(Comment comment, Long currentUserId) {
+    @Autowired
+    private PostService postService;
+
+    private CommentDTO mapToDto(Comment comment, boolean hasUserLiked) {
         if (comment == null) {
             return null;
         }
 
+        // Fetch user data from UserService
+        UserDTO user;
+        try {
+            user = userService.getUserById(comment.getUserId());
+        } catch (Exception e) {
+            user = null;
+        }
+        return mapToDto(comment, hasUserLiked, user);
+    }
+
+    // Pour une liste : likes de l'utilisateur courant et auteurs résolus en un appel groupé chacun
+    private List<CommentDTO> mapToDtos(List<Comment> comments, Long currentUserId) {
+        Set<Long> likedCommentIds = commentService.getLikedCommentIds(currentUserId, comments);
+        Map<Long, UserDTO> users = userService.getUsersByIds(
+            comments.stream().map(Comment::getUserId).toList());
+
+        return comments.stream()
+            .map(comment -> mapToDto(comment, likedCommentIds.contains(comment.getId()), users.get(comment.getUserId())))
+            .filter(dto -> dto != null)
+            .collect(Collectors.toList());
+    }
+
+    private CommentDTO mapToDto(Comment comment, boolean hasUserLiked, UserDTO user) {
         CommentDTO dto = new CommentDTO();
         dto.setId(comment.getId());
         dto.setContent(comment.getContent());
         dto.setUserId(comment.getUserId());
 
-        // Fetch user data from UserService
-        try {
-            UserDTO user = userService.getUserById(comment.getUserId());
+        if (user != null) {
             dto.setUsername(user.getFirstName() + " " + user.getLastName());
             dto.setUserAvatar(user.getImage());
-        } catch (Exception e) {
+        } else {
             // If user not found, set default values
             dto.setUsername("Unknown User");
             dto.setUserAvatar("/placeholder.svg");
@@ -73,9 +99,7 @@ public class CommentController {
         }
 
         dto.setLikes(comment.getLikes());
-        dto.setHasUserLiked(currentUserId != null &&
-                           comment.getLikedByUsers() != null &&
-                           comment.getLikedByUsers().contains(currentUserId));
+        dto.setHasUserLiked(hasUserLiked);
 
         return dto;
     }
@@ -111,7 +135,7 @@ public class CommentController {
             if (newComment == null) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
             }
-            return ResponseEntity.ok(mapToDto(newComment, userId));
+            return ResponseEntity.ok(mapToDto(newComment, false));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         } catch (IllegalArgumentException e) {
@@ -145,11 +169,7 @@ public class CommentController {
                 })
                 .orElse(null);
 
-            List<CommentDTO> commentDTOs = comments.stream()
-                .map(comment -> mapToDto(comment, currentUserId))
-                .filter(dto -> dto != null)
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(commentDTOs);
+            return ResponseEntity.ok(mapToDtos(comments, currentUserId));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -158,6 +178,22 @@ public class CommentController {
         }
     }
 
+    @GetMapping("/post/{postId}/page")
+    public ResponseEntity<CursorPage<CommentDTO>> getCommentThread(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long userId) {
+        CursorPage<Comment> page = commentService.getCommentThread(postId, cursor, size);
+
+        return ResponseEntity.ok(CursorPage.<CommentDTO>builder()
+            .items(mapToDtos(page.getItems(), userId))
+            .nextCursor(page.getNextCursor())
+            .hasMore(page.isHasMore())
+            .totalCount(page.getTotalCount())
+            .build());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CommentDTO> getCommentById(@PathVariable Long id, HttpServletRequest request) {
         try {
@@ -181,7 +217,7 @@ public class CommentController {
                 })
                 .orElse(null);
 
-            return ResponseEntity.ok(mapToDto(comment, currentUserId));
+            return ResponseEntity.ok(mapToDto(comment, commentService.hasUserLikedComment(id, currentUserId)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -216,7 +252,7 @@ public class CommentController {
                 })
                 .orElse(null);
 
-            return ResponseEntity.ok(mapToDto(updatedComment, currentUserId));
+            return ResponseEntity.ok(mapToDto(updatedComment, commentService.hasUserLikedComment(id, currentUserId)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -246,13 +282,19 @@ public class CommentController {
             if (likedComment == null) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(mapToDto(likedComment, userId));
+            return ResponseEntity.ok(mapToDto(likedComment, commentService.hasUserLikedComment(id, userId)));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // Version groupée de /count/{postId} : un seul GROUP BY pour la liste affichée
+    @GetMapping("/counts")
+    public ResponseEntity<Map<Long, Integer>> getCommentCounts(@RequestParam List<Long> postIds) {
+        return ResponseEntity.ok(postService.getCommentCounts(postIds));
+    }
+
     @GetMapping("/count/{postId}")
     public ResponseEntity<Map<String, Integer>> getCommentCount(@PathVariable Long postId) {
         try {
@@ -1,107 +1,210 @@
 package com.example.forum.controller;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import com.example.forum.service.UploadedFileResolver;
+import com.example.forum.service.UploadedFileResolver.ResolvedFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Sert les fichiers uploadés : validation par ETag / Last-Modified (304), plages d'octets
+ * (206) et envoi sans copie dans le tas, via sendfile de Tomcat quand le connecteur le
+ * permet, sinon par FileChannel.transferTo. Le paramètre {@code w} sélectionne la plus
+ * petite variante réduite d'au moins cette largeur.
+ */
 @RestController
 @RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+@Slf4j
 public class FileController {
 
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    // Attributs de requête du sendfile de Tomcat (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Nom adressé par contenu : ne change jamais. Anciens noms aléatoires : un jour puis revalidation
+    private static final String CACHE_IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+    private static final String CACHE_REVALIDATE = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic().getHeaderValue();
+    // Original servi à la place d'une variante pas encore générée : revalidé à chaque fois
+    private static final String CACHE_PROVISIONAL = CacheControl.noCache().getHeaderValue();
+
+    private static final String SVG_CONTENT_TYPE = "image/svg+xml";
+
+    private final UploadedFileResolver uploadedFileResolver;
 
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-        try {
-            // Try multiple possible locations for the file
-            List<Path> possiblePaths = new ArrayList<>();
+    public void serveFile(@PathVariable String filename, @RequestParam(required = false) Integer w,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ResolvedFile> resolved = uploadedFileResolver.resolve(filename, w);
+        if (resolved.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        ResolvedFile file = resolved.get();
 
-            // 1. Try absolute path in the configured upload directory
-            File uploadDirFile = new File(uploadDir);
-            if (!uploadDirFile.isAbsolute()) {
-                uploadDirFile = new File(System.getProperty("user.dir"), uploadDir);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                file.provisional() ? CACHE_PROVISIONAL : file.immutable() ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        // Pose ETag et Last-Modified, et répond 304 (ou 412) si le client est à jour
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) {
+            return;
+        }
+
+        long length = file.size();
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+
+        List<HttpRange> ranges;
+        try {
+            ranges = ifRangeMatches(request, file) ? HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE)) : List.of();
+        } catch (IllegalArgumentException e) {
+            rangeNotSatisfiable(response, length);
+            return;
+        }
+        // Une seule plage servie ; plusieurs plages : réponse complète, permise par la RFC 9110
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                rangeNotSatisfiable(response, length);
+                return;
+            }
+            if (length == 0 || start > end) {
+                rangeNotSatisfiable(response, length);
+                return;
             }
-            possiblePaths.add(uploadDirFile.toPath().resolve(filename).normalize());
+            status = HttpStatus.PARTIAL_CONTENT;
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
 
-            // 2. Try relative path in the project root
-            possiblePaths.add(Paths.get(uploadDir, filename).normalize());
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(file.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition("inline", filename));
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (SVG_CONTENT_TYPE.equalsIgnoreCase(file.contentType())) {
+            // Scripts d'un SVG bloqués, ouverture directe en téléchargement ; <img> l'affiche toujours
+            response.setHeader("Content-Security-Policy", "sandbox");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition("attachment", filename));
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
 
-            // 3. Try relative path in the parent directory (if running from Backend folder)
-            possiblePaths.add(Paths.get("..", uploadDir, filename).normalize());
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        transfer(filename, file, start, count, request, response);
+    }
 
-            // 4. Try absolute path from workspace root
-            String workspaceRoot = System.getProperty("user.dir");
-            if (workspaceRoot.endsWith("Backend")) {
-                workspaceRoot = workspaceRoot.substring(0, workspaceRoot.length() - "Backend".length());
+    private void transfer(String filename, ResolvedFile file, long start, long count,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            if (!Files.isRegularFile(file.path())) {
+                // Supprimé hors de ce service depuis la mise en cache (store partagé, suppression manuelle)
+                notFound(filename, response);
+                return;
             }
-            possiblePaths.add(Paths.get(workspaceRoot, uploadDir, filename).normalize());
-
-            // Try each path until we find the file
-            for (Path filePath : possiblePaths) {
-                try {
-                    Resource resource = new UrlResource(filePath.toUri());
-                    if (resource.exists()) {
-                        // Determine content type dynamically
-                        String contentType = determineContentType(filename);
-
-                        return ResponseEntity.ok()
-                                .contentType(MediaType.parseMediaType(contentType))
-                                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                                .body(resource);
-                    }
-                } catch (MalformedURLException e) {
-                    // Continue to the next path
+            // Tomcat envoie le fichier lui-même (sendfile) après le retour du contrôleur
+            request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file.path(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            notFound(filename, response);
+            return;
+        }
+
+        try (channel) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
                 }
+                position += sent;
+                remaining -= sent;
             }
+        } catch (IOException e) {
+            // Le plus souvent un client qui a interrompu le téléchargement
+            log.debug("Transfer of {} interrupted: {}", filename, e.getMessage());
+        }
+    }
 
-            // If we get here, the file wasn't found in any of the possible locations
-            System.out.println("File not found: " + filename);
-            System.out.println("Tried the following paths:");
-            for (Path path : possiblePaths) {
-                System.out.println(" - " + path.toString());
-            }
-            return ResponseEntity.notFound().build();
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            return ResponseEntity.badRequest().build();
+    // Supprimé depuis la résolution : on oublie le chemin en cache
+    private void notFound(String filename, HttpServletResponse response) {
+        uploadedFileResolver.evict(filename);
+        response.reset();
+        response.setStatus(HttpStatus.NOT_FOUND.value());
+    }
+
+    // Nom échappé par le builder de Spring : guillemets et antislashs en ASCII, filename* (RFC 5987) sinon
+    static String contentDisposition(String type, String filename) {
+        ContentDisposition.Builder builder = ContentDisposition.builder(type);
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(filename)) {
+            builder.filename(filename);
+        } else {
+            builder.filename(filename, StandardCharsets.UTF_8);
         }
+        return builder.build().toString();
     }
 
-    private String determineContentType(String filename) {
+    // If-Range : la plage n'est servie que si le client a encore la même version du fichier.
+    // Comparaison forte (RFC 9110) : un ETag faible ne valide jamais une plage.
+    static boolean ifRangeMatches(HttpServletRequest request, ResolvedFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(file.etag());
+        }
         try {
-            String extension = filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
-            switch (extension) {
-                case "png":
-                    return "image/png";
-                case "jpg":
-                case "jpeg":
-                    return "image/jpeg";
-                case "gif":
-                    return "image/gif";
-                case "webp":
-                    return "image/webp";
-                default:
-                    return Files.probeContentType(Paths.get(filename));
-            }
-        } catch (IOException e) {
-            return "application/octet-stream";
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == file.lastModified();
+        } catch (IllegalArgumentException e) {
+            return false;
         }
     }
-}
\ No newline at end of file
+
+    private void rangeNotSatisfiable(HttpServletResponse response, long length) {
+        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.forum.controller;
+
+import com.example.forum.live.LiveUpdateHub;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Flux temps réel du forum (Server-Sent Events) : nouveaux posts, commentaires, likes et
+ * suppressions, éventuellement limités à une catégorie.
+ */
+@RestController
+@RequestMapping("/api/posts")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:8081")
+public class LiveUpdateController {
+
+    private final LiveUpdateHub liveUpdateHub;
+
+    // Last-Event-ID est renvoyé par EventSource à la reconnexion ; lastEventId permet une reprise explicite
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) String category,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(required = false) String lastEventId,
+                             HttpServletResponse response) {
+        // Pas de mise en tampon par un éventuel proxy nginx
+        response.setHeader("X-Accel-Buffering", "no");
+        return liveUpdateHub.subscribe(category, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.forum.controller;
 
+import com.example.forum.dto.BulkDeleteRequest;
+import com.example.forum.dto.BulkDeleteResponse;
+import com.example.forum.dto.CursorPage;
+import com.example.forum.dto.PostInteractions;
 import com.example.forum.dto.PostRequest;
 import com.example.forum.dto.PostResponse;
+import com.example.forum.dto.PostView;
+import com.example.forum.service.PostBulkDeletionService;
 import com.example.forum.service.PostService;
 import com.example.forum.service.FileStorageService;
 
@@ -25,6 +31,7 @@ import java.util.Map;
 public class PostController {
     private final PostService postService;
     private final FileStorageService fileStorageService;
+    private final PostBulkDeletionService postBulkDeletionService;
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<PostResponse> createPost(
@@ -77,30 +84,77 @@ public class PostController {
     }
 
     @GetMapping
-    public ResponseEntity<List<PostResponse>> getAllPosts(@RequestParam(required = false) Long userId) {
-        return ResponseEntity.ok(postService.getAllPosts(userId));
+    public ResponseEntity<List<PostResponse>> getAllPosts(
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(postService.getAllPosts(PostView.from(view, PostView.FULL), userId));
     }
 
     @GetMapping("/category/{category}")
     public ResponseEntity<List<PostResponse>> getPostsByCategory(
             @PathVariable String category,
+            @RequestParam(required = false) String view,
             @RequestParam(required = false) Long userId) {
-        return ResponseEntity.ok(postService.getPostsByCategory(category, userId));
+        return ResponseEntity.ok(postService.getPostsByCategory(category, PostView.from(view, PostView.FULL), userId));
     }
 
     @GetMapping("/search")
     public ResponseEntity<List<PostResponse>> searchPosts(
             @RequestParam String query,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(postService.searchPosts(query, page, size, PostView.from(view, PostView.FULL), userId));
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPage<PostResponse>> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
             @RequestParam(required = false) Long userId) {
-        return ResponseEntity.ok(postService.searchPosts(query, userId));
+        return ResponseEntity.ok(postService.getFeed(cursor, size, PostView.from(view, PostView.SUMMARY), userId));
+    }
+
+    @GetMapping("/category/{category}/feed")
+    public ResponseEntity<CursorPage<PostResponse>> getCategoryFeed(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(postService.getFeedByCategory(category, cursor, size,
+                PostView.from(view, PostView.SUMMARY), userId));
+    }
+
+    @GetMapping("/search/feed")
+    public ResponseEntity<CursorPage<PostResponse>> searchFeed(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(postService.searchFeed(query, cursor, size, PostView.from(view, PostView.SUMMARY), userId));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostResponse>> getTrending(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(postService.getTrending(category, size, PostView.from(view, PostView.SUMMARY), userId));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<PostResponse> getPostById(
             @PathVariable Long id,
+            @RequestParam(required = false) String view,
             @RequestParam(required = false) Long userId) {
+        PostView postView = PostView.from(view, PostView.FULL);
         try {
-            PostResponse post = postService.getPostById(id, userId);
+            PostResponse post = postService.getPostById(id, postView, userId);
             return ResponseEntity.ok(post);
         } catch (Exception e) {
             throw new ResponseStatusException(
@@ -116,6 +170,17 @@ public class PostController {
         return ResponseEntity.noContent().build();
     }
 
+    // Administration : purge de nombreux posts par lots bornés
+    @PostMapping("/admin/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> bulkDeletePosts(@RequestBody @Valid BulkDeleteRequest request) {
+        return ResponseEntity.ok(postBulkDeletionService.deletePosts(request.getPostIds()));
+    }
+
+    @DeleteMapping("/admin/user/{userId}")
+    public ResponseEntity<BulkDeleteResponse> deletePostsByUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(postBulkDeletionService.deletePostsByUser(userId));
+    }
+
     @PostMapping("/{postId}/like")
     public ResponseEntity<PostResponse> likePost(
             @PathVariable Long postId,
@@ -131,6 +196,21 @@ public class PostController {
         }
     }
 
+    // Compteurs de commentaires et likes de l'utilisateur pour toute une liste de posts
+    @GetMapping("/interactions")
+    public ResponseEntity<Map<Long, PostInteractions>> getInteractions(
+            @RequestParam List<Long> postIds,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(postService.getInteractions(postIds, userId));
+    }
+
+    @GetMapping("/hasLiked")
+    public ResponseEntity<Map<Long, Boolean>> hasUserLikedPosts(
+            @RequestParam List<Long> postIds,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(postService.getLikedFlags(postIds, userId));
+    }
+
     @GetMapping("/{postId}/hasLiked")
     public ResponseEntity<Map<String, Boolean>> hasUserLikedPost(
             @PathVariable Long postId,
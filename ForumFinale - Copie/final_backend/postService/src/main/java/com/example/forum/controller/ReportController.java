@@ -1,5 +1,7 @@
 package com.example.forum.controller;
 
+import com.example.forum.dto.CursorPage;
+import com.example.forum.dto.ReportQueueItem;
 import com.example.forum.dto.ReportResponse;
 import com.example.forum.model.Report;
 import com.example.forum.service.ReportService;
@@ -54,6 +56,14 @@ public class ReportController {
         return ResponseEntity.ok(reports);
     }
 
+    // File de modération : signalements en attente groupés par post, paginés par curseur
+    @GetMapping("/queue")
+    public ResponseEntity<CursorPage<ReportQueueItem>> getModerationQueue(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reportService.getModerationQueue(cursor, size));
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<Report> updateReportStatus(
             @PathVariable Long id,
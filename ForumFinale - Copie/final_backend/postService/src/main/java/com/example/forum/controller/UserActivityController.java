@@ -1,5 +1,6 @@
 package com.example.forum.controller;
 
+import com.example.forum.dto.CursorPage;
 import com.example.forum.model.UserActivity;
 import com.example.forum.service.UserActivityService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,8 +9,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/user-activities")
 @CrossOrigin(origins = {"http://localhost:8081", "http://localhost:5173"}, allowedHeaders = "*", methods = {RequestMethod.GET})
@@ -19,14 +18,19 @@ public class UserActivityController {
     private UserActivityService userActivityService;
 
     @GetMapping("/{userId}")
-    public ResponseEntity<List<UserActivity>> getUserActivities(@PathVariable Long userId) {
+    public ResponseEntity<CursorPage<UserActivity>> getUserActivities(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
             if (userId == null || userId == 0) {
                 return ResponseEntity.badRequest().build();
             }
             
-            List<UserActivity> activities = userActivityService.getUserActivities(userId);
+            CursorPage<UserActivity> activities = userActivityService.getUserActivities(userId, cursor, size);
             return ResponseEntity.ok(activities);
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
             throw new ResponseStatusException(
                 HttpStatus.INTERNAL_SERVER_ERROR,
@@ -0,0 +1,18 @@
+package com.example.forum.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequest {
+    @NotEmpty(message = "La liste des posts à supprimer ne peut pas être vide")
+    private List<Long> postIds;
+}
@@ -0,0 +1,19 @@
+package com.example.forum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResponse {
+    // Identifiants distincts demandés (ou posts trouvés pour un auteur)
+    private int requested;
+    private int deleted;
+
+    // Nombre de lots, chacun supprimé dans sa propre transaction
+    private int chunks;
+}
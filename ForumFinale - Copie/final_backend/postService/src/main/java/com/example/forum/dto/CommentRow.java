@@ -0,0 +1,13 @@
+package com.example.forum.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'un commentaire utilisée pour remplir PostResponse.comments.
+ */
+public record CommentRow(Long id,
+                         Long postId,
+                         Long userId,
+                         String content,
+                         LocalDateTime createdAt) {
+}
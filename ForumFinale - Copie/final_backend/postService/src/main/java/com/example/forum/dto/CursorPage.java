@@ -0,0 +1,25 @@
+package com.example.forum.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+
+    // Curseur opaque à renvoyer pour obtenir la page suivante (null si dernière page)
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Nombre total d'éléments, quand il est connu sans compter les lignes
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalCount;
+}
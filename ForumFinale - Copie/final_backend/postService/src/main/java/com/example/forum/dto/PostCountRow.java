@@ -0,0 +1,8 @@
+package com.example.forum.dto;
+
+/**
+ * Nombre de lignes par post, résultat d'un GROUP BY post_id.
+ */
+public record PostCountRow(Long postId,
+                           long count) {
+}
@@ -0,0 +1,17 @@
+package com.example.forum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostInteractions {
+    private int comments;
+
+    // Toujours false sans utilisateur connecté
+    private boolean hasLiked;
+}
@@ -1,6 +1,7 @@
 package com.example.forum.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,9 +29,13 @@ public class PostResponse {
     private int likeCount;
     private int commentCount;
     private int reportCount;
-    private boolean hasUserLiked;
+
+    // Absents en mode summary (voir PostView)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasUserLiked;
     
     // Liste des commentaires (optionnel, à charger sur demande)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<CommentResponse> comments;
     
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
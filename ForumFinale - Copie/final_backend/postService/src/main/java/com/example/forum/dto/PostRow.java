@@ -0,0 +1,25 @@
+package com.example.forum.dto;
+
+import com.example.forum.model.Post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection des colonnes scalaires d'un post, sans les collections associées.
+ */
+public record PostRow(Long id,
+                      Long userId,
+                      String content,
+                      String imageUrl,
+                      String category,
+                      int likes,
+                      int comments,
+                      int reports,
+                      LocalDateTime createdAt) {
+
+    public static PostRow of(Post post) {
+        return new PostRow(post.getId(), post.getUserId(), post.getContent(), post.getImageUrl(),
+                post.getCategory(), post.getLikes(), post.getComments(), post.getReports(),
+                post.getCreatedAt());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.forum.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * Niveau de détail d'un PostResponse, choisi par l'appelant via le paramètre "view".
+ * SUMMARY : compteurs et like de l'utilisateur courant, sans lecture des commentaires.
+ * PREVIEW : les derniers commentaires du post.
+ * FULL    : tous les commentaires.
+ */
+public enum PostView {
+    SUMMARY,
+    PREVIEW,
+    FULL;
+
+    // Nombre de commentaires renvoyés en mode PREVIEW
+    public static final int PREVIEW_COMMENTS = 3;
+
+    public static PostView from(String value, PostView defaultView) {
+        if (value == null || value.isBlank()) {
+            return defaultView;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Mode de projection invalide: " + value + " (summary, preview ou full)");
+        }
+    }
+}
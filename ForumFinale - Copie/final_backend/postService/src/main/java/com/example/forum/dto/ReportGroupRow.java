@@ -0,0 +1,12 @@
+package com.example.forum.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Agrégat des signalements en attente d'un post (file de modération).
+ */
+public record ReportGroupRow(Long postId,
+                             Long pendingCount,
+                             LocalDateTime firstReportedAt,
+                             LocalDateTime lastReportedAt) {
+}
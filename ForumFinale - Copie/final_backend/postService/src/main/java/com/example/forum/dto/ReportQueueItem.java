@@ -0,0 +1,38 @@
+package com.example.forum.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Une entrée de la file de modération : un post et ses signalements en attente
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportQueueItem {
+    // Informations du post signalé
+    private Long postId;
+    private String postContent;
+    private String postImageUrl;
+    private Long postAuthorId;
+    private String postAuthor;
+    private String postAuthorAvatar;
+
+    // Agrégats des signalements en attente
+    private long pendingCount;
+    private List<String> reasons;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime firstReportedAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime lastReportedAt;
+
+    // Signalements les plus récents (au plus forum.reports.queue.reports-per-post)
+    private List<ReportResponse> latestReports;
+}
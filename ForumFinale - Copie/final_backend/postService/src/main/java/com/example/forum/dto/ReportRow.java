@@ -0,0 +1,14 @@
+package com.example.forum.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'un signalement, sans charger le post associé.
+ */
+public record ReportRow(Long id,
+                        Long postId,
+                        Long userId,
+                        String reason,
+                        String status,
+                        LocalDateTime createdAt) {
+}
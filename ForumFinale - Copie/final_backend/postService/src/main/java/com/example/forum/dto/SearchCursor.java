@@ -0,0 +1,38 @@
+package com.example.forum.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position dans une liste de résultats classés par pertinence.
+ * Le classement n'ayant pas de clé stable, le curseur encode un rang.
+ */
+public record SearchCursor(int offset) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("rank:" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith("rank:")) {
+                throw new IllegalArgumentException("prefix missing");
+            }
+            int offset = Integer.parseInt(raw.substring("rank:".length()));
+            if (offset < 0) {
+                throw new IllegalArgumentException("negative offset");
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur de pagination invalide");
+        }
+    }
+}
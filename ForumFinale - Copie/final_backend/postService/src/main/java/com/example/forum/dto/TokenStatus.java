@@ -0,0 +1,13 @@
+package com.example.forum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Réponse de GET /api/auth/revocations/{tokenId} (Useverification)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenStatus {
+    private boolean revoked;
+}
@@ -0,0 +1,20 @@
+package com.example.forum.live;
+
+/**
+ * Événement poussé aux clients du flux temps réel. La catégorie sert au filtrage ; un
+ * événement sans catégorie (suppression en masse par exemple) est envoyé à tous.
+ */
+public record LiveEvent(long id,
+                        String type,
+                        String category,
+                        Long postId,
+                        Object data) {
+
+    public static final String POST_CREATED = "post.created";
+    public static final String POST_DELETED = "post.deleted";
+    public static final String POST_LIKES = "post.likes";
+    public static final String COMMENT_CREATED = "comment.created";
+    public static final String COMMENT_DELETED = "comment.deleted";
+    // Reprise impossible (Last-Event-ID trop ancien ou d'une autre instance) : recharger la liste
+    public static final String RESET = "reset";
+}
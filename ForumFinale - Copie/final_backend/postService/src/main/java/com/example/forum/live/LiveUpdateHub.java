@@ -0,0 +1,250 @@
+package com.example.forum.live;
+
+import com.example.forum.config.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion des nouveautés du forum (posts, commentaires, likes, suppressions) aux clients
+ * abonnés en Server-Sent Events, à la place du rafraîchissement périodique des listes.
+ *
+ * <p>La publication ne bloque jamais : l'événement est ajouté à un tampon circulaire puis
+ * déposé dans la file bornée de chaque abonné, vidée par un petit pool d'envoi (une tâche
+ * au plus par abonné). Un abonné dont la file déborde est déconnecté ; il se reconnecte avec
+ * son Last-Event-ID et rattrape les événements manqués depuis le tampon circulaire, ou reçoit
+ * un événement {@code reset} si ceux-ci n'y sont plus ou ne tiennent pas dans sa file.
+ *
+ * <p>Les identifiants partent de l'heure de démarrage en millisecondes : après un redémarrage,
+ * un Last-Event-ID de l'ancienne instance est reconnu comme inconnu plutôt que confondu.
+ */
+@Component
+@Slf4j
+public class LiveUpdateHub {
+
+    private static final LiveEvent HEARTBEAT = new LiveEvent(0, "heartbeat", null, null, null);
+
+    private final long timeoutMs;
+    private final int subscriberBuffer;
+    private final int maxSubscribers;
+    private final ThreadPoolExecutor sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Tampon circulaire des derniers événements, pour la reprise sur Last-Event-ID
+    private final Object lock = new Object();
+    private final LiveEvent[] ring;
+    private long lastId = System.currentTimeMillis();
+    private final long firstId = lastId + 1;
+
+    public LiveUpdateHub(@Value("${forum.live.timeout-ms:1800000}") long timeoutMs,
+                         @Value("${forum.live.replay-size:1000}") int replaySize,
+                         @Value("${forum.live.subscriber-buffer:64}") int subscriberBuffer,
+                         @Value("${forum.live.max-subscribers:5000}") int maxSubscribers,
+                         @Value("${forum.live.sender-threads:4}") int senderThreads) {
+        this.timeoutMs = timeoutMs;
+        this.subscriberBuffer = subscriberBuffer;
+        this.maxSubscribers = maxSubscribers;
+        this.ring = new LiveEvent[replaySize];
+        AtomicInteger counter = new AtomicInteger();
+        // File non bornée mais limitée de fait : un abonné n'y a jamais plus d'une tâche
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "live-sender-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Ouvre un flux, limité à une catégorie si elle est donnée. Avec un Last-Event-ID, les
+     * événements publiés depuis sont rejoués avant les nouveaux, sans trou ni doublon.
+     */
+    public SseEmitter subscribe(String category, String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Trop de connexions au flux, réessayez plus tard");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, category == null || category.isBlank() ? null : category);
+        emitter.onCompletion(subscriber::detach);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        // Rejeu et inscription sous le même verrou que la publication
+        synchronized (lock) {
+            Long after = parseId(lastEventId);
+            if (after != null) {
+                replay(subscriber, after);
+            }
+            subscribers.add(subscriber);
+        }
+        // Envoie les en-têtes tout de suite, même sans événement à rejouer
+        subscriber.offer(HEARTBEAT);
+        return emitter;
+    }
+
+    public void publishAfterCommit(String type, String category, Long postId, Object data) {
+        TransactionCallbacks.afterCommit(() -> publish(type, category, postId, data));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Garde les connexions ouvertes à travers les proxys et détecte les clients partis
+    @Scheduled(
+        initialDelayString = "${forum.live.heartbeat-interval-ms:15000}",
+        fixedDelayString = "${forum.live.heartbeat-interval-ms:15000}"
+    )
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        sender.shutdownNow();
+    }
+
+    private void publish(String type, String category, Long postId, Object data) {
+        synchronized (lock) {
+            LiveEvent event = new LiveEvent(++lastId, type, category, postId, data);
+            ring[(int) (event.id() % ring.length)] = event;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.accepts(event)) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    // Appelé sous le verrou
+    private void replay(Subscriber subscriber, long after) {
+        long oldest = Math.max(firstId, lastId - ring.length + 1);
+        if (after > lastId || after < oldest - 1) {
+            subscriber.offer(new LiveEvent(lastId, LiveEvent.RESET, null, null, null));
+            return;
+        }
+        List<LiveEvent> missed = new ArrayList<>();
+        for (long id = after + 1; id <= lastId; id++) {
+            LiveEvent event = ring[(int) (id % ring.length)];
+            if (subscriber.accepts(event)) {
+                missed.add(event);
+            }
+        }
+        // Trop d'événements pour la file de l'abonné (qui doit aussi recevoir le heartbeat
+        // d'ouverture) : il serait déconnecté aussitôt, on lui demande de tout recharger
+        if (missed.size() >= subscriberBuffer) {
+            subscriber.offer(new LiveEvent(lastId, LiveEvent.RESET, null, null, null));
+            return;
+        }
+        missed.forEach(subscriber::offer);
+    }
+
+    private static Long parseId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final String category;
+        private final BlockingQueue<LiveEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, String category) {
+            this.emitter = emitter;
+            this.category = category;
+            this.queue = new ArrayBlockingQueue<>(subscriberBuffer);
+        }
+
+        boolean accepts(LiveEvent event) {
+            return category == null || event.category() == null || category.equals(event.category());
+        }
+
+        void offer(LiveEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // Client trop lent : il reprendra depuis son Last-Event-ID
+                log.debug("Live subscriber buffer full, disconnecting");
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                LiveEvent event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event == HEARTBEAT
+                            ? SseEmitter.event().comment("heartbeat")
+                            : SseEmitter.event().id(Long.toString(event.id())).name(event.type()).data(event));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Connexion fermée côté client
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            // Un événement a pu arriver entre la dernière lecture et la libération du drapeau
+            if (!closed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        void detach() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+        }
+
+        void close() {
+            if (!closed) {
+                detach();
+                emitter.complete();
+            }
+        }
+    }
+}
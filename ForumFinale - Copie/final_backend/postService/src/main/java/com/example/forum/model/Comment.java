@@ -5,12 +5,15 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+    // Commentaires d'un post triés par (created_at, id) : aperçu, liste complète et pagination par curseur
+    @Index(name = "idx_comments_post_created_at_id", columnList = "post_id, created_at, id")
+})
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -40,15 +43,6 @@ public class Comment {
     @Builder.Default
     private Integer likes = 0;
 
-    @ElementCollection
-    @CollectionTable(
-        name = "comment_likes",
-        joinColumns = @JoinColumn(name = "comment_id")
-    )
-    @Column(name = "user_id")
-    @Builder.Default
-    private Set<Long> likedByUsers = new HashSet<>();
-
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,27 @@
+package com.example.forum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "comment_likes",
+    uniqueConstraints = @UniqueConstraint(name = "uk_comment_likes_comment_user", columnNames = {"comment_id", "user_id"}),
+    indexes = @Index(name = "idx_comment_likes_user_id", columnList = "user_id, created_at"))
+@IdClass(CommentLikeId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentLike {
+    @Id
+    @Column(name = "comment_id", nullable = false)
+    private Long commentId;
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,15 @@
+package com.example.forum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentLikeId implements Serializable {
+    private Long commentId;
+    private Long userId;
+}
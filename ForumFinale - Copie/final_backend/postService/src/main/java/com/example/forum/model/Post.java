@@ -3,12 +3,20 @@ package com.example.forum.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    // Index composite pour la pagination par curseur (created_at, id)
+    @Index(name = "idx_posts_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_posts_category_created_at_id", columnList = "category, created_at, id")
+})
+// DynamicUpdate : une sauvegarde de l'entité n'écrase pas les compteurs mis à jour par delta
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -49,14 +57,9 @@ public class Post {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
-    @ElementCollection
-    @CollectionTable(
-        name = "post_likes",
-        joinColumns = @JoinColumn(name = "post_id")
-    )
-    @Column(name = "user_id")
-    @Builder.Default
-    private List<Long> likedByUsers = new ArrayList<>();
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL)
     @Builder.Default
@@ -0,0 +1,28 @@
+package com.example.forum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Une ligne par like : la clé (post_id, user_id) rend le toggle O(1) quel que soit le nombre de likes
+@Entity
+@Table(name = "post_likes",
+    uniqueConstraints = @UniqueConstraint(name = "uk_post_likes_post_user", columnNames = {"post_id", "user_id"}),
+    indexes = @Index(name = "idx_post_likes_user_id", columnList = "user_id, created_at"))
+@IdClass(PostLikeId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostLike {
+    @Id
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
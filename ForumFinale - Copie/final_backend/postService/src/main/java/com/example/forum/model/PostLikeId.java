@@ -0,0 +1,15 @@
+package com.example.forum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostLikeId implements Serializable {
+    private Long postId;
+    private Long userId;
+}
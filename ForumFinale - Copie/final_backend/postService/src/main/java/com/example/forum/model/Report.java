@@ -5,7 +5,12 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = {
+    // File de modération : agrégation des signalements en attente par post
+    @Index(name = "idx_reports_status_post_created_at", columnList = "status, post_id, created_at"),
+    // File de modération : parcours par curseur des signalements en attente
+    @Index(name = "idx_reports_status_created_at", columnList = "status, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
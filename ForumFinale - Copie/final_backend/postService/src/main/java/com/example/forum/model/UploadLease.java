@@ -0,0 +1,29 @@
+package com.example.forum.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Référence provisoire prise par un upload, rendue à expiration ; persistée pour survivre aux redémarrages
+@Entity
+@Table(name = "upload_leases",
+    indexes = @Index(name = "idx_upload_leases_expires_at", columnList = "expires_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadLease {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String filename;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
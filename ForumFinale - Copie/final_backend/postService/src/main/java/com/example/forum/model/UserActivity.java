@@ -1,5 +1,6 @@
 package com.example.forum.model;
 
+import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,17 +8,38 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+// Journal en ajout seul, écrit au moment de l'action ; la timeline d'un utilisateur
+// est lue par curseur sur (user_id, created_at, id)
+@Entity
+@Table(name = "user_activities",
+    indexes = @Index(name = "idx_user_activities_user_created_at_id", columnList = "user_id, created_at, id"))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserActivity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @Column(name = "user_id", nullable = false)
     private Long userId;
+
+    @Column(name = "activity_type", nullable = false, length = 20)
     private String activityType; // POST, POST_LIKE, COMMENT, COMMENT_LIKE
+
+    @Column(name = "target_id", nullable = false)
     private Long targetId; // ID du post ou du commentaire concerné
+
+    @Column(columnDefinition = "TEXT")
     private String content; // Contenu du post ou du commentaire (si applicable)
+
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
+
+    @Column(name = "target_title")
     private String targetTitle; // Titre ou extrait du post/commentaire cible
+
+    @Column(name = "post_id")
     private Long postId; // ID du post parent (pour les commentaires et likes de commentaires)
 }
@@ -0,0 +1,55 @@
+package com.example.forum.repository;
+
+import com.example.forum.model.CommentLike;
+import com.example.forum.model.CommentLikeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CommentLikeRepository extends JpaRepository<CommentLike, CommentLikeId> {
+    boolean existsByCommentIdAndUserId(Long commentId, Long userId);
+
+    List<CommentLike> findByUserId(Long userId);
+
+    List<CommentLike> findByUserIdAndCommentIdIn(Long userId, Collection<Long> commentIds);
+
+    @Query("SELECT l.commentId FROM CommentLike l WHERE l.userId = :userId AND l.commentId IN :commentIds")
+    List<Long> findLikedCommentIds(@Param("userId") Long userId, @Param("commentIds") Collection<Long> commentIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO comment_likes (comment_id, user_id, created_at) VALUES (:commentId, :userId, :createdAt)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("commentId") Long commentId,
+                       @Param("userId") Long userId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CommentLike l WHERE l.commentId = :commentId AND l.userId = :userId")
+    int deleteLike(@Param("commentId") Long commentId, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CommentLike l WHERE l.commentId = :commentId")
+    int deleteByComment(@Param("commentId") Long commentId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CommentLike l WHERE l.commentId IN (SELECT c.id FROM Comment c WHERE c.post.id = :postId)")
+    int deleteByPost(@Param("postId") Long postId);
+
+    // Suppression groupée de posts : une instruction pour tout le lot
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CommentLike l WHERE l.commentId IN (SELECT c.id FROM Comment c WHERE c.post.id IN :postIds)")
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
+}
@@ -1,10 +1,19 @@
 package com.example.forum.repository;
 
+import com.example.forum.dto.CommentRow;
+import com.example.forum.dto.PostCountRow;
 import com.example.forum.model.Comment;
 import com.example.forum.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +22,50 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPost_IdOrderByCreatedAtDesc(Long postId);
     int countByPost_Id(Long postId);
     List<Comment> findByUserId(Long userId);
+
+    @Query("SELECT c.id FROM Comment c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Fil d'un post par curseur sur (created_at, id) : s'appuie sur idx_comments_post_created_at_id
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findThreadFirstPage(@Param("postId") Long postId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findThreadAfter(@Param("postId") Long postId,
+                                  @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id,
+                                  Pageable pageable);
+
+    // Projections pour PostResponse.comments, ordre chronologique dans chaque post
+    @Query("SELECT new com.example.forum.dto.CommentRow(c.id, c.post.id, c.userId, c.content, c.createdAt) " +
+           "FROM Comment c WHERE c.post.id IN :postIds ORDER BY c.post.id, c.createdAt, c.id")
+    List<CommentRow> findRowsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    // Nombre de commentaires de plusieurs posts en une requête ; les posts sans commentaire sont absents
+    @Query("SELECT new com.example.forum.dto.PostCountRow(c.post.id, COUNT(c)) " +
+           "FROM Comment c WHERE c.post.id IN :postIds GROUP BY c.post.id")
+    List<PostCountRow> countByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    // Les :limit commentaires les plus récents de chaque post, en une requête (fenêtre par post_id)
+    @Query("SELECT new com.example.forum.dto.CommentRow(r.id, r.postId, r.userId, r.content, r.createdAt) " +
+           "FROM (SELECT c.id AS id, c.post.id AS postId, c.userId AS userId, c.content AS content, " +
+           "             c.createdAt AS createdAt, " +
+           "             row_number() OVER (PARTITION BY c.post.id ORDER BY c.createdAt DESC, c.id DESC) AS rn " +
+           "      FROM Comment c WHERE c.post.id IN :postIds) r " +
+           "WHERE r.rn <= :limit ORDER BY r.postId, r.createdAt, r.id")
+    List<CommentRow> findNewestRowsByPostIds(@Param("postIds") Collection<Long> postIds,
+                                             @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Comment c SET c.likes = c.likes + :delta WHERE c.id = :id")
+    int adjustLikes(@Param("id") Long id, @Param("delta") int delta);
+
+    // Suppression groupée de posts : remplace la cascade entité par entité
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Comment c WHERE c.post.id IN :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.forum.repository;
+
+import com.example.forum.model.PostLike;
+import com.example.forum.model.PostLikeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostLikeRepository extends JpaRepository<PostLike, PostLikeId> {
+    boolean existsByPostIdAndUserId(Long postId, Long userId);
+
+    List<PostLike> findByUserId(Long userId);
+
+    List<PostLike> findByUserIdAndPostIdIn(Long userId, Collection<Long> postIds);
+
+    @Query("SELECT l.postId FROM PostLike l WHERE l.userId = :userId AND l.postId IN :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+
+    // Retourne 1 si le like a été ajouté, 0 s'il existait déjà (clé unique post_id, user_id)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO post_likes (post_id, user_id, created_at) VALUES (:postId, :userId, :createdAt)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("postId") Long postId,
+                       @Param("userId") Long userId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    // Retourne 1 si le like a été retiré, 0 s'il n'existait pas
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PostLike l WHERE l.postId = :postId AND l.userId = :userId")
+    int deleteLike(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PostLike l WHERE l.postId = :postId")
+    int deleteByPost(@Param("postId") Long postId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PostLike l WHERE l.postId IN :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
+}
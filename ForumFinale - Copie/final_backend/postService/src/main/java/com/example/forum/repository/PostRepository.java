@@ -1,14 +1,143 @@
 package com.example.forum.repository;
 
+import com.example.forum.dto.PostRow;
 import com.example.forum.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
-    List<Post> findByCategory(String category);
-    List<Post> findByContentContainingIgnoreCase(String query);
     List<Post> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Projections scalaires : ne chargent ni les commentaires ni les likes
+    String ROW = "SELECT new com.example.forum.dto.PostRow(p.id, p.userId, p.content, p.imageUrl, " +
+                 "p.category, p.likes, p.comments, p.reports, p.createdAt) FROM Post p ";
+
+    @Query(ROW)
+    List<PostRow> findAllRows();
+
+    @Query(ROW + "WHERE p.category = :category")
+    List<PostRow> findRowsByCategory(@Param("category") String category);
+
+    @Query(ROW + "WHERE p.id IN :ids")
+    List<PostRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(ROW + "WHERE p.id = :id")
+    Optional<PostRow> findRowById(@Param("id") Long id);
+
+    // Amorçage du classement des tendances
+    @Query(ROW + "WHERE p.createdAt >= :since")
+    List<PostRow> findRowsCreatedAfter(@Param("since") LocalDateTime since);
+
+    // Pagination par curseur sur (created_at, id) : s'appuie sur idx_posts_created_at_id
+    @Query(ROW + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRow> findFeedFirstPage(Pageable pageable);
+
+    @Query(ROW + "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRow> findFeedAfter(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    @Query(ROW + "WHERE p.category = :category ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRow> findCategoryFeedFirstPage(@Param("category") String category, Pageable pageable);
+
+    @Query(ROW + "WHERE p.category = :category " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRow> findCategoryFeedAfter(@Param("category") String category,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Compteur dénormalisé seul, sans charger le post
+    @Query("SELECT p.comments FROM Post p WHERE p.id = :id")
+    Optional<Integer> findCommentCount(@Param("id") Long id);
+
+    // Migration des images inline (data:) vers le store, une ligne à la fois
+    @Query("SELECT p.id FROM Post p WHERE p.id > :afterId AND p.imageUrl LIKE 'data:%' ORDER BY p.id")
+    List<Long> findInlineImageIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.imageUrl FROM Post p WHERE p.id = :id")
+    Optional<String> findImageUrl(@Param("id") Long id);
+
+    // Ne remplace que si la ligne porte encore une image inline (pas de modification concurrente)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.imageUrl = :imageUrl WHERE p.id = :id AND p.imageUrl LIKE 'data:%'")
+    int replaceInlineImage(@Param("id") Long id, @Param("imageUrl") String imageUrl);
+
+    // Rattrapage de l'index de recherche au démarrage
+    List<Post> findByUpdatedAtAfter(LocalDateTime updatedAt);
+
+    // Compteurs dénormalisés : mises à jour atomiques par delta, sans relire la ligne
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.likes = p.likes + :delta WHERE p.id = :id")
+    int adjustLikes(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.comments = p.comments + :delta WHERE p.id = :id")
+    int adjustComments(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.reports = p.reports + :delta WHERE p.id = :id")
+    int adjustReports(@Param("id") Long id, @Param("delta") int delta);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Suppression groupée : identifiants existants du lot, posts d'un auteur, images à libérer
+    @Query("SELECT p.id FROM Post p WHERE p.userId = :userId ORDER BY p.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // URL relatives ou absolues (le frontend préfixe l'hôte) ; le filtre exact est isStoredUrl
+    @Query("SELECT p.imageUrl FROM Post p WHERE p.id IN :ids AND p.imageUrl LIKE '%/api/uploads/%'")
+    List<String> findStoredImageUrls(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Post p WHERE p.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Réconciliation : chaque requête recalcule et corrige en une seule instruction
+    // les compteurs qui ont dérivé sur une plage d'identifiants bornée
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p SET p.likes = (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id) " +
+                   "WHERE p.id BETWEEN :fromId AND :toId " +
+                   "AND p.likes <> (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id)",
+           nativeQuery = true)
+    int reconcileLikes(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p SET p.comments = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id) " +
+                   "WHERE p.id BETWEEN :fromId AND :toId " +
+                   "AND p.comments <> (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id)",
+           nativeQuery = true)
+    int reconcileComments(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p SET p.reports = (SELECT COUNT(*) FROM reports r WHERE r.post_id = p.id) " +
+                   "WHERE p.id BETWEEN :fromId AND :toId " +
+                   "AND p.reports <> (SELECT COUNT(*) FROM reports r WHERE r.post_id = p.id)",
+           nativeQuery = true)
+    int reconcileReports(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -1,9 +1,18 @@
 package com.example.forum.repository;
 
+import com.example.forum.dto.ReportGroupRow;
+import com.example.forum.dto.ReportRow;
 import com.example.forum.model.Report;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +20,52 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     List<Report> findByPost_IdOrderByCreatedAtDesc(Long postId);
     List<Report> findByStatusOrderByCreatedAtDesc(String status);
     boolean existsByUserIdAndPost_Id(Long userId, Long postId);
-}
\ No newline at end of file
+
+    // Le post est chargé dans la même requête plutôt qu'une ligne à la fois
+    @Query("SELECT r FROM Report r JOIN FETCH r.post WHERE r.status = :status ORDER BY r.createdAt DESC")
+    List<Report> findWithPostByStatus(@Param("status") String status);
+
+    // File de modération : un post par ligne, représenté par son dernier signalement en attente,
+    // du plus récent au plus ancien. Le curseur porte sur les colonnes (created_at, id) de ce
+    // signalement, parcourues dans idx_reports_status_created_at ; l'absence de signalement plus
+    // récent sur le même post est vérifiée dans idx_reports_status_post_created_at.
+    String QUEUE_HEADS = "SELECT new com.example.forum.dto.ReportRow(r.id, r.post.id, r.userId, r.reason, r.status, r.createdAt) " +
+                         "FROM Report r WHERE r.status = 'PENDING' AND NOT EXISTS (" +
+                         "    SELECT n.id FROM Report n WHERE n.post = r.post AND n.status = 'PENDING' " +
+                         "    AND (n.createdAt > r.createdAt OR (n.createdAt = r.createdAt AND n.id > r.id))) ";
+
+    @Query(QUEUE_HEADS + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportRow> findQueueFirstPage(Pageable pageable);
+
+    @Query(QUEUE_HEADS + "AND (r.createdAt < :lastReportedAt OR (r.createdAt = :lastReportedAt AND r.id < :reportId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportRow> findQueueAfter(@Param("lastReportedAt") LocalDateTime lastReportedAt,
+                                   @Param("reportId") Long reportId,
+                                   Pageable pageable);
+
+    // Agrégats des seuls posts de la page
+    @Query("SELECT new com.example.forum.dto.ReportGroupRow(r.post.id, COUNT(r), MIN(r.createdAt), MAX(r.createdAt)) " +
+           "FROM Report r WHERE r.status = 'PENDING' AND r.post.id IN :postIds GROUP BY r.post.id")
+    List<ReportGroupRow> findQueueGroups(@Param("postIds") Collection<Long> postIds);
+
+    @Query("SELECT COUNT(DISTINCT r.post.id) FROM Report r WHERE r.status = 'PENDING'")
+    long countPostsWithPendingReports();
+
+    @Query("SELECT DISTINCT r.post.id, r.reason FROM Report r WHERE r.status = 'PENDING' AND r.post.id IN :postIds")
+    List<Object[]> findPendingReasons(@Param("postIds") Collection<Long> postIds);
+
+    // Les :limit signalements en attente les plus récents de chaque post, en une requête
+    @Query("SELECT new com.example.forum.dto.ReportRow(x.id, x.postId, x.userId, x.reason, x.status, x.createdAt) " +
+           "FROM (SELECT r.id AS id, r.post.id AS postId, r.userId AS userId, r.reason AS reason, " +
+           "             r.status AS status, r.createdAt AS createdAt, " +
+           "             row_number() OVER (PARTITION BY r.post.id ORDER BY r.createdAt DESC, r.id DESC) AS rn " +
+           "      FROM Report r WHERE r.status = 'PENDING' AND r.post.id IN :postIds) x " +
+           "WHERE x.rn <= :limit ORDER BY x.postId, x.createdAt DESC, x.id DESC")
+    List<ReportRow> findLatestPendingByPostIds(@Param("postIds") Collection<Long> postIds,
+                                               @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Report r WHERE r.post.id IN :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
+}
@@ -0,0 +1,26 @@
+package com.example.forum.repository;
+
+import com.example.forum.model.UploadLease;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadLeaseRepository extends JpaRepository<UploadLease, Long> {
+
+    @Query("SELECT l FROM UploadLease l WHERE l.expiresAt <= :now ORDER BY l.expiresAt")
+    List<UploadLease> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Retourne 0 si une autre instance a déjà rendu ce bail
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadLease l WHERE l.id = :id")
+    int deleteLease(@Param("id") Long id);
+}
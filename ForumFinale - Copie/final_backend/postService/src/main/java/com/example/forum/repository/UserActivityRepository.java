@@ -0,0 +1,27 @@
+package com.example.forum.repository;
+
+import com.example.forum.model.UserActivity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserActivityRepository extends JpaRepository<UserActivity, Long> {
+
+    // Timeline par curseur sur (created_at, id) : s'appuie sur idx_user_activities_user_created_at_id
+    @Query("SELECT a FROM UserActivity a WHERE a.userId = :userId ORDER BY a.createdAt DESC, a.id DESC")
+    List<UserActivity> findTimelineFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT a FROM UserActivity a WHERE a.userId = :userId " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<UserActivity> findTimelineAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+}
@@ -0,0 +1,361 @@
+package com.example.forum.search;
+
+import com.example.forum.config.TransactionCallbacks;
+import com.example.forum.model.Post;
+import com.example.forum.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire sur le contenu et la catégorie des posts, classé par BM25.
+ * Mis à jour de façon incrémentale par PostService (après commit), et sauvegardé
+ * périodiquement sur disque pour éviter une reconstruction complète au démarrage.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostSearchIndex {
+
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Les termes de la catégorie comptent double par rapport au contenu
+    private static final int CATEGORY_BOOST = 2;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    public record SearchHits(List<Long> postIds, int total) {}
+
+    private final PostRepository postRepository;
+
+    // terme -> (post -> fréquence), et l'index direct pour pouvoir retirer un document
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength = 0;
+    private LocalDateTime watermark;
+    private volatile boolean dirty = false;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${forum.search.snapshot-path:search-index/posts.idx}")
+    private String snapshotPath;
+
+    // Lu après commit pour que updated_at soit celui réellement écrit au flush
+    public void indexAfterCommit(Post post) {
+        TransactionCallbacks.afterCommit(() -> indexPost(post));
+    }
+
+    public void removeAfterCommit(Long postId) {
+        TransactionCallbacks.afterCommit(() -> remove(postId));
+    }
+
+    public SearchHits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 1 : (double) totalLength / documentCount;
+            for (String term : terms) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+                    int frequency = posting.getValue();
+                    int length = documentLengths.get(posting.getKey());
+                    double norm = frequency + K1 * (1 - B + B * length / averageLength);
+                    scores.merge(posting.getKey(), idf * frequency * (K1 + 1) / norm, Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Tas borné aux offset + limit meilleurs résultats ; à score égal, le post le plus récent d'abord
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        int wanted = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(ranking.reversed());
+        List<Long> page = ranked.stream()
+                .skip(offset)
+                .map(Map.Entry::getKey)
+                .toList();
+        return new SearchHits(page, scores.size());
+    }
+
+    void index(Long postId, String content, String category, LocalDateTime updatedAt) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : TextAnalyzer.tokenize(content)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        for (String term : TextAnalyzer.tokenize(category)) {
+            frequencies.merge(term, CATEGORY_BOOST, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(postId);
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(postId, entry.getValue());
+                length += entry.getValue();
+            }
+            documents.put(postId, frequencies);
+            documentLengths.put(postId, length);
+            totalLength += length;
+            if (updatedAt != null && (watermark == null || updatedAt.isAfter(watermark))) {
+                watermark = updatedAt;
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(postId);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(Long postId) {
+        Map<String, Integer> previous = documents.remove(postId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.keySet()) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(postId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= documentLengths.remove(postId);
+    }
+
+    // Démarrage : charger le dernier instantané puis rattraper les écarts avec la base
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        boolean loaded = loadSnapshot();
+        if (!loaded) {
+            rebuild();
+            return;
+        }
+
+        Set<Long> indexed;
+        // Relevé avant le rattrapage : indexer les posts manquants avance le watermark
+        LocalDateTime snapshotWatermark;
+        lock.readLock().lock();
+        try {
+            indexed = new HashSet<>(documents.keySet());
+            snapshotWatermark = watermark;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int caughtUp = 0;
+        List<Long> missing = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = postRepository.findIdsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long id : ids) {
+                if (!indexed.remove(id)) {
+                    missing.add(id);
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        // Ce qui reste dans "indexed" a été supprimé pendant l'arrêt
+        indexed.forEach(this::remove);
+
+        for (int start = 0; start < missing.size(); start += REBUILD_BATCH_SIZE) {
+            List<Long> batch = missing.subList(start, Math.min(start + REBUILD_BATCH_SIZE, missing.size()));
+            postRepository.findAllById(batch).forEach(this::indexPost);
+            caughtUp += batch.size();
+        }
+        if (snapshotWatermark != null) {
+            List<Post> modified = postRepository.findByUpdatedAtAfter(snapshotWatermark);
+            modified.forEach(this::indexPost);
+            caughtUp += modified.size();
+        }
+        log.info("Search index loaded from snapshot: {} documents, {} removed, {} re-indexed",
+                documents.size(), indexed.size(), caughtUp);
+    }
+
+    private void rebuild() {
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = postRepository.findIdsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            postRepository.findAllById(ids).forEach(this::indexPost);
+            afterId = ids.get(ids.size() - 1);
+        }
+        log.info("Search index rebuilt from database: {} documents", documents.size());
+        saveSnapshot();
+    }
+
+    private void indexPost(Post post) {
+        index(post.getId(), post.getContent(), post.getCategory(), post.getUpdatedAt());
+    }
+
+    @Scheduled(
+        initialDelayString = "${forum.search.snapshot-interval-ms:300000}",
+        fixedDelayString = "${forum.search.snapshot-interval-ms:300000}"
+    )
+    public void saveSnapshotIfDirty() {
+        if (dirty) {
+            saveSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void saveSnapshotOnShutdown() {
+        saveSnapshotIfDirty();
+    }
+
+    /**
+     * Copie l'index sous le verrou de lecture puis l'écrit sans verrou : les écritures de l'index
+     * n'attendent pas le disque. Les fréquences d'un document ne sont jamais modifiées après son
+     * insertion (index() en crée de nouvelles), une copie superficielle suffit.
+     * Écrit dans un fichier temporaire puis le renomme, pour ne jamais laisser d'instantané tronqué.
+     */
+    void saveSnapshot() {
+        Path target = Paths.get(snapshotPath).toAbsolutePath();
+        Map<Long, Map<String, Integer>> snapshot;
+        LocalDateTime snapshotWatermark;
+        lock.readLock().lock();
+        try {
+            snapshot = new HashMap<>(documents);
+            snapshotWatermark = watermark;
+            // Une écriture arrivée après la copie remettra le drapeau
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "posts", ".idx.tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeUTF(snapshotWatermark == null ? "" : snapshotWatermark.toString());
+                out.writeInt(snapshot.size());
+                for (Map.Entry<Long, Map<String, Integer>> document : snapshot.entrySet()) {
+                    out.writeLong(document.getKey());
+                    out.writeInt(document.getValue().size());
+                    for (Map.Entry<String, Integer> term : document.getValue().entrySet()) {
+                        out.writeUTF(term.getKey());
+                        out.writeInt(term.getValue());
+                    }
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.error("Could not save search index snapshot to {}: {}", target, e.getMessage());
+        }
+    }
+
+    // Lit le fichier sans verrou, puis installe le contenu sous le verrou d'écriture
+    boolean loadSnapshot() {
+        Path source = Paths.get(snapshotPath).toAbsolutePath();
+        if (!Files.exists(source)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Search index snapshot {} has an unsupported version, rebuilding", source);
+                return false;
+            }
+            String savedWatermark = in.readUTF();
+            LocalDateTime loadedWatermark = savedWatermark.isEmpty() ? null : LocalDateTime.parse(savedWatermark);
+            int documentCount = in.readInt();
+
+            Map<Long, Map<String, Integer>> loaded = new HashMap<>();
+            for (int i = 0; i < documentCount; i++) {
+                long postId = in.readLong();
+                int termCount = in.readInt();
+                Map<String, Integer> frequencies = new HashMap<>();
+                for (int t = 0; t < termCount; t++) {
+                    frequencies.put(in.readUTF(), in.readInt());
+                }
+                loaded.put(postId, frequencies);
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Map<String, Integer>> document : loaded.entrySet()) {
+                    Long postId = document.getKey();
+                    int length = 0;
+                    for (Map.Entry<String, Integer> term : document.getValue().entrySet()) {
+                        postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(postId, term.getValue());
+                        length += term.getValue();
+                    }
+                    documents.put(postId, document.getValue());
+                    documentLengths.put(postId, length);
+                    totalLength += length;
+                }
+                watermark = loadedWatermark;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read search index snapshot {} ({}), rebuilding", source, e.getMessage());
+            return false;
+        }
+    }
+}
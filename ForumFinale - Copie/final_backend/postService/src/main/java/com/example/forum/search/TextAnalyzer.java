@@ -0,0 +1,51 @@
+package com.example.forum.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Découpe un texte en termes indexables : minuscules, accents supprimés
+ * ("élève" et "eleve" donnent le même terme), élisions françaises retirées
+ * ("l'école" devient "ecole") et mots vides ignorés.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}']+");
+    private static final Pattern ELISION = Pattern.compile("^(?:l|d|j|m|n|s|t|c|qu|jusqu|lorsqu|puisqu)'");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "un", "une", "des", "du", "de", "et", "ou", "en", "au", "aux",
+            "ce", "ces", "cet", "cette", "est", "sont", "pour", "par", "sur", "dans", "avec",
+            "que", "qui", "ne", "pas", "se", "sa", "son", "ses", "il", "elle", "on", "nous",
+            "vous", "ils", "elles", "je", "tu", "me", "te", "mon", "ma", "mes", "a",
+            "the", "and", "or", "of", "to", "in", "is", "it", "for", "an");
+
+    private TextAnalyzer() {
+    }
+
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace('’', '\'');
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String raw : SEPARATORS.split(fold(text))) {
+            String token = ELISION.matcher(raw).replaceFirst("").replace("'", "");
+            if (token.length() >= 2 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.forum.service;
 
+import com.example.forum.dto.CursorPage;
+import com.example.forum.dto.FeedCursor;
+import com.example.forum.dto.PostCountRow;
 import com.example.forum.dto.UserDTO;
+import com.example.forum.live.LiveEvent;
+import com.example.forum.live.LiveUpdateHub;
 import com.example.forum.model.Comment;
 import com.example.forum.model.Post;
+import com.example.forum.repository.CommentLikeRepository;
 import com.example.forum.repository.CommentRepository;
 import com.example.forum.repository.PostRepository;
+import com.example.forum.trending.TrendingEngine;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import jakarta.transaction.Transactional;
 
 @Service
@@ -28,6 +41,31 @@ public class CommentService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private CommentLikeRepository commentLikeRepository;
+
+    @Autowired
+    private UserActivityService userActivityService;
+
+    @Autowired
+    private TrendingEngine trendingEngine;
+
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+
+    @Value("${forum.comments.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${forum.comments.max-page-size:100}")
+    private int maxPageSize;
+
+    @Transactional
     public Comment createComment(Long postId, Long userId, String content) {
         if (content == null || content.trim().length() < 3) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Le contenu du commentaire doit contenir au moins 3 caractères");
@@ -48,17 +86,17 @@ public class CommentService {
                     .userId(userId)
                     .createdAt(LocalDateTime.now())
                     .likes(0)
-                    .likedByUsers(new HashSet<>())
                     .build();
             System.out.println("Comment built: " + comment.getContent());
 
-            post.setComments(post.getComments() + 1);
-            postRepository.save(post);
-            System.out.println("Post updated and saved.");
-
             Comment savedComment = commentRepository.save(comment);
             System.out.println("Comment saved: " + savedComment.getId());
 
+            postCounterService.adjustComments(post.getId(), 1);
+            userActivityService.recordComment(savedComment);
+            trendingEngine.recordCommentAfterCommit(post.getId(), post.getCategory(), savedComment.getCreatedAt());
+            publishCommentCount(LiveEvent.COMMENT_CREATED, post, savedComment.getId());
+
             return savedComment;
         } catch (ResponseStatusException e) {
             // Re-throw ResponseStatusException as is
@@ -75,6 +113,37 @@ public class CommentService {
         return commentRepository.findByPost_IdOrderByCreatedAtDesc(postId);
     }
 
+    // Une page du fil, du plus récent au plus ancien ; le total vient du compteur Post.comments
+    public CursorPage<Comment> getCommentThread(Long postId, String cursor, Integer size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+
+        Integer totalCount = postRepository.findCommentCount(postId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+
+        // Une ligne de plus que la taille de page pour savoir s'il reste des commentaires
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Comment> comments = position == null
+                ? commentRepository.findThreadFirstPage(postId, limit)
+                : commentRepository.findThreadAfter(postId, position.createdAt(), position.id(), limit);
+
+        boolean hasMore = comments.size() > pageSize;
+        List<Comment> page = hasMore ? comments.subList(0, pageSize) : comments;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Comment last = page.get(page.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPage.<Comment>builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .totalCount(totalCount.longValue())
+                .build();
+    }
+
     public Comment getCommentById(Long id) {
         return commentRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found"));
@@ -86,36 +155,59 @@ public class CommentService {
         return commentRepository.save(comment);
     }
 
+    @Transactional
     public void deleteComment(Long id) {
         Comment comment = commentRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found"));
 
-        Post post = comment.getPost();
-        post.setComments(post.getComments() - 1);
-        postRepository.save(post);
+        Long postId = comment.getPost().getId();
+        commentLikeRepository.deleteByComment(id);
+        commentRepository.delete(comment);
+        postCounterService.adjustComments(postId, -1);
+        trendingEngine.removeCommentAfterCommit(postId, comment.getCreatedAt());
+        publishCommentCount(LiveEvent.COMMENT_DELETED, comment.getPost(), id);
+    }
 
-        commentRepository.deleteById(id);
+    // Le compteur relu dans la transaction inclut la modification en cours
+    private void publishCommentCount(String type, Post post, Long commentId) {
+        int comments = postRepository.findCommentCount(post.getId()).orElse(0);
+        liveUpdateHub.publishAfterCommit(type, post.getCategory(), post.getId(),
+                Map.of("commentId", commentId, "comments", comments));
     }
 
     public int getCommentCountForPost(Long postId) {
         return commentRepository.countByPost_Id(postId);
     }
 
+    // Un seul GROUP BY pour toute une liste de posts ; 0 pour les posts sans commentaire
+    public Map<Long, Integer> getCommentCounts(Collection<Long> postIds) {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        postIds.forEach(postId -> counts.put(postId, 0));
+        if (!postIds.isEmpty()) {
+            for (PostCountRow row : commentRepository.countByPostIds(postIds)) {
+                counts.put(row.postId(), (int) row.count());
+            }
+        }
+        return counts;
+    }
+
     @Transactional
     public Comment likeComment(Long commentId, Long userId) {
-        Comment comment = getCommentById(commentId);
+        if (!commentRepository.existsById(commentId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found");
+        }
 
-        // Check if user has already liked this comment
-        boolean hasLiked = comment.getLikedByUsers().contains(userId);
+        likeService.toggleCommentLike(commentId, userId);
 
-        if (hasLiked) {
-            comment.getLikedByUsers().remove(userId);
-            comment.setLikes(comment.getLikes() - 1);
-        } else {
-            comment.getLikedByUsers().add(userId);
-            comment.setLikes(comment.getLikes() + 1);
-        }
+        // Chargé après le toggle pour refléter le compteur mis à jour atomiquement
+        return getCommentById(commentId);
+    }
 
-        return commentRepository.save(comment);
+    public boolean hasUserLikedComment(Long commentId, Long userId) {
+        return userId != null && likeService.hasLikedComment(commentId, userId);
+    }
+
+    public Set<Long> getLikedCommentIds(Long userId, List<Comment> comments) {
+        return likeService.likedCommentIds(userId, comments.stream().map(Comment::getId).toList());
     }
 }
\ No newline at end of file
@@ -1,53 +1,274 @@
 package com.example.forum.service;
 
+import com.example.forum.config.TransactionCallbacks;
+import com.example.forum.model.UploadLease;
+import com.example.forum.repository.UploadLeaseRepository;
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.MediaStore;
+import com.weconnect.media.StoredMedia;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
+/**
+ * Dépôt des images de posts dans le MediaStore : un contenu identique n'est stocké qu'une
+ * fois et reçoit une URL stable dérivée de son SHA-256. Les images envoyées inline
+ * (URI {@code data:}) y sont extraites pour que la colonne image_url ne garde qu'une URL.
+ *
+ * <p>Chaque post détient sa propre référence sur son image, prise à l'enregistrement
+ * ({@link #ingestImageUrl}) : une même URL peut être portée par plusieurs posts. La référence
+ * prise par l'upload n'est qu'un bail, rendu après {@code upload-lease-minutes} ; les baux
+ * sont enregistrés dans la table upload_leases et survivent aux redémarrages.
+ *
+ * <p>Une URL désigne le store par son chemin ({@code /api/uploads/...}), quel que soit l'hôte :
+ * le frontend enregistre des URL absolues ({@code http://localhost:8082/api/uploads/...}).
+ */
 @Service
+@RequiredArgsConstructor
+@Slf4j
 public class FileStorageService {
 
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    public static final String UPLOAD_URL_PREFIX = "/api/uploads/";
+
+    private static final String DATA_URI_SCHEME = "data:";
+    private static final Pattern MEDIA_SUBTYPE = Pattern.compile("[a-z0-9]{1,10}");
+    // Schéma et hôte d'une URL absolue ("http://hote:port") ou relative au protocole ("//hote")
+    private static final Pattern ORIGIN = Pattern.compile("^([a-zA-Z][a-zA-Z0-9+.-]*:)?//[^/]*");
+    private static final int LEASE_SWEEP_BATCH = 100;
+
+    private final MediaStore mediaStore;
+    private final ImageVariants imageVariants;
+    private final UploadedFileResolver uploadedFileResolver;
+    private final UploadLeaseRepository uploadLeaseRepository;
+
+    @Value("${forum.images.upload-lease-minutes:60}")
+    private long uploadLeaseMinutes;
 
     public String storeFile(MultipartFile file) {
-        try {
-            // Get the absolute path to the uploads directory
-            File uploadDirFile = new File(uploadDir);
-            if (!uploadDirFile.isAbsolute()) {
-                uploadDirFile = new File(System.getProperty("user.dir"), uploadDir);
+        try (InputStream content = file.getInputStream()) {
+            StoredMedia media = mediaStore.store(content, file.getOriginalFilename());
+            if (media.deduplicated()) {
+                log.debug("Upload {} deduplicated as {}", file.getOriginalFilename(), media.filename());
             }
+            // Variantes réduites générées en arrière-plan, servies via ?w=
+            imageVariants.generateAsync(media.filename());
 
-            // Create the upload directory if it doesn't exist
-            Path uploadPath = uploadDirFile.toPath();
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            try {
+                uploadLeaseRepository.save(UploadLease.builder()
+                        .filename(media.filename())
+                        .expiresAt(LocalDateTime.now().plusMinutes(uploadLeaseMinutes))
+                        .build());
+            } catch (RuntimeException e) {
+                // Sans bail enregistré, la référence de l'upload ne serait jamais rendue
+                release(media.filename());
+                throw e;
             }
 
-            // Generate a unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            // Return the URL to access the file
+            return UPLOAD_URL_PREFIX + media.filename();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename(), ex);
+        }
+    }
+
+    public static boolean isDataUri(String imageUrl) {
+        return imageUrl != null && imageUrl.regionMatches(true, 0, DATA_URI_SCHEME, 0, DATA_URI_SCHEME.length());
+    }
+
+    /**
+     * Image d'un post en cours d'enregistrement, avec une référence prise pour ce post : une
+     * image inline est extraite vers le store, une URL du store reçoit une référence de plus.
+     * Toute autre valeur est retournée telle quelle. Dans une transaction, la référence prise
+     * est rendue si elle est annulée.
+     */
+    public String ingestImageUrl(String imageUrl) {
+        String url;
+        if (isDataUri(imageUrl)) {
+            url = storeDataUri(imageUrl);
+        } else if (isStoredUrl(imageUrl)) {
+            if (!acquire(imageUrl)) {
+                // Fichier absent : rien à référencer, l'URL est gardée telle quelle
+                return imageUrl;
             }
-            String filename = UUID.randomUUID().toString() + fileExtension;
+            url = imageUrl;
+        } else {
+            return imageUrl;
+        }
+        TransactionCallbacks.afterRollback(() -> release(MediaStore.filenameFromUrl(url)));
+        return url;
+    }
 
-            // Save the file
-            Path targetLocation = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * Décode une URI {@code data:image/...;base64,...} directement vers le store : les caractères
+     * sont lus depuis la chaîne et décodés au fil de l'eau, sans copie intermédiaire en octets.
+     */
+    public String storeDataUri(String dataUri) {
+        int comma = dataUri.indexOf(',');
+        if (comma < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image inline invalide");
+        }
+        String[] header = dataUri.substring(DATA_URI_SCHEME.length(), comma).toLowerCase(Locale.ROOT).split(";");
+        String mediaType = header[0].trim();
+        boolean base64 = false;
+        for (int i = 1; i < header.length; i++) {
+            base64 |= header[i].trim().equals("base64");
+        }
+        if (!mediaType.startsWith("image/") || !base64) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Seules les images inline encodées en base64 sont acceptées");
+        }
+        // Un SVG peut embarquer du script, exécuté dans l'origine du forum s'il est ouvert directement
+        if (mediaType.equals("image/svg+xml")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Les images SVG inline ne sont pas acceptées");
+        }
 
-            // Return the URL to access the file
-            return "/api/uploads/" + filename;
+        try (InputStream content = new Base64ImageStream(dataUri, comma + 1)) {
+            StoredMedia media = mediaStore.store(content, "inline" + extensionOf(mediaType));
+            if (media.size() == 0) {
+                mediaStore.release(media.filename());
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image inline vide");
+            }
+            imageVariants.generateAsync(media.filename());
+            return UPLOAD_URL_PREFIX + media.filename();
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image inline invalide : base64 incorrect");
         } catch (IOException ex) {
-            ex.printStackTrace();
-            throw new RuntimeException("Could not store file " + file.getOriginalFilename(), ex);
+            throw new RuntimeException("Could not store inline image", ex);
+        }
+    }
+
+    // Libère l'image une fois la transaction validée ; ignore les URL qui ne viennent pas du store
+    public void releaseAfterCommit(String imageUrl) {
+        if (!isStoredUrl(imageUrl)) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> release(MediaStore.filenameFromUrl(imageUrl)));
+    }
+
+    // Vrai si l'URL, relative ou absolue, désigne un fichier du store
+    public static boolean isStoredUrl(String imageUrl) {
+        return imageUrl != null && ORIGIN.matcher(imageUrl).replaceFirst("").startsWith(UPLOAD_URL_PREFIX);
+    }
+
+    // Rend les références des uploads dont le bail a expiré (le post a pris la sienne)
+    @Scheduled(fixedDelayString = "${forum.images.upload-lease-sweep-ms:60000}")
+    public void releaseExpiredUploadLeases() {
+        try {
+            List<UploadLease> expired;
+            do {
+                expired = uploadLeaseRepository.findExpired(LocalDateTime.now(), PageRequest.of(0, LEASE_SWEEP_BATCH));
+                for (UploadLease lease : expired) {
+                    // Supprimé par une seule instance : la référence n'est rendue qu'une fois
+                    if (uploadLeaseRepository.deleteLease(lease.getId()) > 0) {
+                        release(lease.getFilename());
+                    }
+                }
+            } while (expired.size() == LEASE_SWEEP_BATCH);
+        } catch (RuntimeException e) {
+            log.warn("Upload lease sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean acquire(String imageUrl) {
+        try {
+            return mediaStore.acquire(MediaStore.filenameFromUrl(imageUrl));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not reference media " + imageUrl, e);
+        }
+    }
+
+    private void release(String filename) {
+        try {
+            mediaStore.release(filename);
+        } catch (IOException e) {
+            log.warn("Could not release media {}: {}", filename, e.getMessage());
+        } finally {
+            uploadedFileResolver.evict(filename);
+        }
+    }
+
+    private static String extensionOf(String mediaType) {
+        String subtype = mediaType.substring("image/".length());
+        switch (subtype) {
+            case "jpeg":
+            case "pjpeg":
+                return ".jpg";
+            default:
+                return MEDIA_SUBTYPE.matcher(subtype).matches() ? "." + subtype : "";
+        }
+    }
+
+    // Décode le base64 d'une chaîne à partir d'une position ; une erreur de décodage devient IllegalArgumentException
+    private static final class Base64ImageStream extends FilterInputStream {
+
+        Base64ImageStream(String source, int start) {
+            // Le décodeur MIME ignore les retours à la ligne éventuels du base64
+            super(Base64.getMimeDecoder().wrap(new AsciiCharsInputStream(source, start)));
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return super.read(buffer, offset, length);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+    }
+
+    // Lit les caractères ASCII d'une chaîne comme des octets, à partir d'une position
+    private static final class AsciiCharsInputStream extends InputStream {
+        private final String source;
+        private int position;
+
+        AsciiCharsInputStream(String source, int start) {
+            this.source = source;
+            this.position = start;
+        }
+
+        @Override
+        public int read() {
+            return position < source.length() ? source.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= source.length()) {
+                return -1;
+            }
+            int count = Math.min(length, source.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) source.charAt(position + i);
+            }
+            position += count;
+            return count;
         }
     }
-}
\ No newline at end of file
+}
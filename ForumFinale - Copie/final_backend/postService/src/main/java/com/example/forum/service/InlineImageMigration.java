@@ -0,0 +1,116 @@
+package com.example.forum.service;
+
+import com.example.forum.repository.PostRepository;
+import com.weconnect.media.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Migre les images inline (URI data:) déjà enregistrées dans posts.image_url vers le store.
+ * Parcourt les posts concernés par identifiant croissant, lit une seule image à la fois et
+ * remplace la valeur par une URL courte ; chaque ligne est écrite dans sa propre transaction.
+ * Les nouveaux posts n'enregistrent plus d'images inline : une fois un passage terminé sans
+ * échec, un marqueur dans le répertoire des uploads évite de refaire le parcours de la table
+ * aux démarrages suivants.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InlineImageMigration {
+
+    private final PostRepository postRepository;
+    private final FileStorageService fileStorageService;
+    private final MediaStore mediaStore;
+
+    @Value("${forum.images.migrate-inline-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${forum.images.migration-batch-size:100}")
+    private int batchSize;
+
+    // Au démarrage, sur un thread de basse priorité pour ne pas retarder la disponibilité
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        if (!migrateOnStartup || Files.exists(completionMarker())) {
+            return;
+        }
+        Thread worker = new Thread(this::migrate, "inline-image-migration");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    public int migrate() {
+        int migrated = 0;
+        int failed = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = postRepository.findInlineImageIdsAfter(afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long id : ids) {
+                if (migrateOne(id)) {
+                    migrated++;
+                } else {
+                    failed++;
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        if (migrated > 0 || failed > 0) {
+            log.info("Inline image migration: {} post image(s) moved to file storage, {} left unchanged", migrated, failed);
+        }
+        if (failed == 0) {
+            markCompleted();
+        }
+        return migrated;
+    }
+
+    // Nom commençant par un point : jamais servi par /api/uploads
+    private Path completionMarker() {
+        return mediaStore.getRoot().resolve(".inline-images-migrated");
+    }
+
+    private void markCompleted() {
+        try {
+            Files.writeString(completionMarker(), "");
+        } catch (IOException e) {
+            log.warn("Could not record inline image migration completion: {}", e.getMessage());
+        }
+    }
+
+    private boolean migrateOne(Long postId) {
+        String dataUri = postRepository.findImageUrl(postId).orElse(null);
+        if (!FileStorageService.isDataUri(dataUri)) {
+            // Modifié ou supprimé depuis la sélection
+            return false;
+        }
+
+        String imageUrl;
+        try {
+            imageUrl = fileStorageService.storeDataUri(dataUri);
+        } catch (RuntimeException e) {
+            log.warn("Inline image of post {} not migrated: {}", postId, e.getMessage());
+            return false;
+        }
+
+        if (postRepository.replaceInlineImage(postId, imageUrl) == 0) {
+            // La ligne a changé entre-temps : rendre la référence prise sur le fichier
+            fileStorageService.releaseAfterCommit(imageUrl);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.forum.service;
+
+import com.example.forum.repository.CommentLikeRepository;
+import com.example.forum.repository.CommentRepository;
+import com.example.forum.repository.PostLikeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Moteur de likes pour les posts et les commentaires.
+ * Un toggle coûte une suppression ou une insertion d'une seule ligne sur la clé
+ * (cible, user_id), suivie d'un UPDATE atomique du compteur.
+ */
+@Service
+@RequiredArgsConstructor
+public class LikeService {
+
+    private final PostLikeRepository postLikeRepository;
+    private final CommentLikeRepository commentLikeRepository;
+    private final CommentRepository commentRepository;
+    private final PostCounterService postCounterService;
+    private final LikeWriteBehindBuffer likeWriteBehindBuffer;
+    private final UserActivityService userActivityService;
+
+    // Retourne true si le post est aimé après l'opération
+    @Transactional
+    public boolean togglePostLike(Long postId, Long userId) {
+        if (likeWriteBehindBuffer.isEnabled()) {
+            return likeWriteBehindBuffer.toggle(postId, userId,
+                    () -> postLikeRepository.existsByPostIdAndUserId(postId, userId));
+        }
+
+        if (postLikeRepository.deleteLike(postId, userId) > 0) {
+            postCounterService.adjustLikes(postId, -1);
+            return false;
+        }
+        LocalDateTime likedAt = likedAt();
+        if (postLikeRepository.insertIfAbsent(postId, userId, likedAt) > 0) {
+            postCounterService.adjustLikes(postId, 1);
+            userActivityService.recordPostLike(userId, postId, likedAt);
+        }
+        // Si l'insertion a été ignorée, une requête concurrente a déjà posé le like
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasLikedPost(Long postId, Long userId) {
+        Boolean pendingState = likeWriteBehindBuffer.pendingState(postId, userId);
+        if (pendingState != null) {
+            return pendingState;
+        }
+        return postLikeRepository.existsByPostIdAndUserId(postId, userId);
+    }
+
+    @Transactional(readOnly = true)
+    public Set<Long> likedPostIds(Long userId, Collection<Long> postIds) {
+        if (userId == null || userId == 0 || postIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> persisted = new HashSet<>(postLikeRepository.findLikedPostIds(userId, postIds));
+        return likeWriteBehindBuffer.overlayLikedPostIds(userId, postIds, persisted);
+    }
+
+    // Likes encore en mémoire (mode write-behind) à ajouter au compteur persisté
+    public int pendingPostLikeDelta(Long postId) {
+        return likeWriteBehindBuffer.pendingDelta(postId);
+    }
+
+    @Transactional
+    public boolean toggleCommentLike(Long commentId, Long userId) {
+        if (commentLikeRepository.deleteLike(commentId, userId) > 0) {
+            commentRepository.adjustLikes(commentId, -1);
+            return false;
+        }
+        LocalDateTime likedAt = likedAt();
+        if (commentLikeRepository.insertIfAbsent(commentId, userId, likedAt) > 0) {
+            commentRepository.adjustLikes(commentId, 1);
+            userActivityService.recordCommentLike(userId, commentId, likedAt);
+        }
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasLikedComment(Long commentId, Long userId) {
+        return commentLikeRepository.existsByCommentIdAndUserId(commentId, userId);
+    }
+
+    @Transactional(readOnly = true)
+    public Set<Long> likedCommentIds(Long userId, Collection<Long> commentIds) {
+        if (userId == null || userId == 0 || commentIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(commentLikeRepository.findLikedCommentIds(userId, commentIds));
+    }
+
+    // Précision de la colonne DATETIME(6) : la valeur relue est identique à celle du journal d'activité
+    static LocalDateTime likedAt() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.forum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Pose la contrainte d'unicité (cible, user_id) sur post_likes et comment_likes quand elle manque.
+ * Les anciennes collections de likes toléraient les doublons et ddl-auto=update ne peut pas ajouter
+ * la contrainte par-dessus : les doublons sont d'abord fusionnés (created_at le plus ancien), puis la
+ * contrainte est ajoutée. Les toggles en INSERT IGNORE en dépendent. Exécuté une fois le schéma à jour,
+ * avant l'ouverture du serveur HTTP ; sans effet quand la contrainte existe déjà.
+ * posts.likes est ensuite corrigé par PostCounterReconciler.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LikeTableMigration implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate("post_likes", "post_id", "uk_post_likes_post_user");
+        migrate("comment_likes", "comment_id", "uk_comment_likes_comment_user");
+    }
+
+    void migrate(String table, String targetColumn, String constraintName) {
+        try {
+            if (!tableExists(table) || hasUniqueKey(table, targetColumn)) {
+                return;
+            }
+            int removed = transactionTemplate.execute(status -> removeDuplicates(table, targetColumn));
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + constraintName
+                    + " UNIQUE (" + targetColumn + ", user_id)");
+            log.info("Like table {}: {} duplicate row(s) removed, unique key {} added", table, removed, constraintName);
+        } catch (DataAccessException e) {
+            log.error("Like table {} not migrated, duplicate likes remain possible: {}", table, e.getMessage());
+        }
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    // Clé primaire ou index unique portant exactement sur (cible, user_id)
+    private boolean hasUniqueKey(String table, String targetColumn) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT INDEX_NAME FROM information_schema.STATISTICS"
+                        + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND NON_UNIQUE = 0"
+                        + " GROUP BY INDEX_NAME"
+                        + " HAVING COUNT(*) = 2 AND SUM(COLUMN_NAME IN (?, 'user_id')) = 2) unique_keys",
+                Integer.class, table, targetColumn);
+        return count != null && count > 0;
+    }
+
+    // Une table temporaire reste liée à la connexion : tout se fait dans la même transaction
+    private int removeDuplicates(String table, String targetColumn) {
+        int removed = jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id IS NULL OR " + targetColumn + " IS NULL");
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE like_duplicates AS"
+                + " SELECT " + targetColumn + " AS target_id, user_id, MIN(created_at) AS created_at FROM " + table
+                + " GROUP BY " + targetColumn + ", user_id HAVING COUNT(*) > 1");
+        try {
+            removed += jdbcTemplate.update("DELETE l FROM " + table + " l JOIN like_duplicates d"
+                    + " ON l." + targetColumn + " = d.target_id AND l.user_id = d.user_id");
+            removed -= jdbcTemplate.update("INSERT INTO " + table + " (" + targetColumn + ", user_id, created_at)"
+                    + " SELECT target_id, user_id, created_at FROM like_duplicates");
+        } finally {
+            jdbcTemplate.execute("DROP TEMPORARY TABLE IF EXISTS like_duplicates");
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.forum.service;
+
+import com.example.forum.live.LiveEvent;
+import com.example.forum.live.LiveUpdateHub;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Mode write-behind optionnel pour les likes de posts (forum.likes.write-behind.enabled).
+ * Les toggles sont accumulés en mémoire dans des ConcurrentHashMap (verrou par entrée, sans
+ * verrou global), puis écrits par lots dans post_likes et posts.likes à intervalle court.
+ * Les lectures superposent les deltas en attente à l'état persisté. Une entrée disparaît dès
+ * que son delta retombe à zéro ; les likes d'un post supprimé entre-temps sont abandonnés.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LikeWriteBehindBuffer {
+
+    private record LikeKey(Long postId, Long userId) {}
+
+    // liked : état voulu ; delta : effet sur le compteur par rapport à l'état persisté
+    private record PendingLike(boolean liked, int delta, LocalDateTime at) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserActivityService userActivityService;
+    private final LiveUpdateHub liveUpdateHub;
+
+    private final ConcurrentHashMap<LikeKey, PendingLike> pending = new ConcurrentHashMap<>();
+    // Delta en attente par post ; absent quand il vaut zéro
+    private final ConcurrentHashMap<Long, Integer> pendingDeltas = new ConcurrentHashMap<>();
+
+    @Value("${forum.likes.write-behind.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enregistre un toggle et retourne l'état résultant (true = aimé).
+     * L'état persisté n'est lu que si aucun toggle n'est déjà en attente pour ce couple.
+     */
+    public boolean toggle(Long postId, Long userId, BooleanSupplier persistedState) {
+        LikeKey key = new LikeKey(postId, userId);
+        // Si une entrée est vidée entre-temps, la base reflète déjà son état
+        PendingLike seen = pending.get(key);
+        boolean persistedLiked = seen != null ? seen.liked() : persistedState.getAsBoolean();
+
+        PendingLike[] previous = new PendingLike[1];
+        PendingLike updated = pending.compute(key, (k, current) -> {
+            previous[0] = current;
+            if (current == null) {
+                return new PendingLike(!persistedLiked, persistedLiked ? -1 : 1, LikeService.likedAt());
+            }
+            boolean liked = !current.liked();
+            return new PendingLike(liked, current.delta() + (liked ? 1 : -1), LikeService.likedAt());
+        });
+
+        int previousDelta = previous[0] == null ? 0 : previous[0].delta();
+        addPendingDelta(postId, updated.delta() - previousDelta);
+        return updated.liked();
+    }
+
+    public int pendingDelta(Long postId) {
+        return pendingDeltas.getOrDefault(postId, 0);
+    }
+
+    // null si aucun toggle n'est en attente pour ce couple
+    public Boolean pendingState(Long postId, Long userId) {
+        PendingLike like = pending.get(new LikeKey(postId, userId));
+        return like == null ? null : like.liked();
+    }
+
+    public Set<Long> overlayLikedPostIds(Long userId, Collection<Long> postIds, Set<Long> persisted) {
+        if (pending.isEmpty()) {
+            return persisted;
+        }
+        Set<Long> liked = new HashSet<>(persisted);
+        for (Long postId : postIds) {
+            Boolean state = pendingState(postId, userId);
+            if (state != null) {
+                if (state) {
+                    liked.add(postId);
+                } else {
+                    liked.remove(postId);
+                }
+            }
+        }
+        return liked;
+    }
+
+    @Scheduled(fixedDelayString = "${forum.likes.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<LikeKey, PendingLike> snapshot = new HashMap<>(pending);
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<LikeKey> insertKeys = new ArrayList<>();
+        List<LikeKey> deleteKeys = new ArrayList<>();
+        snapshot.forEach((key, like) -> {
+            if (like.liked()) {
+                inserts.add(new Object[]{key.postId(), key.userId(), Timestamp.valueOf(like.at()), key.postId()});
+                insertKeys.add(key);
+            } else {
+                deletes.add(new Object[]{key.postId(), key.userId()});
+                deleteKeys.add(key);
+            }
+        });
+
+        // Le compteur suit les lignes réellement ajoutées/supprimées, jamais l'intention
+        Map<Long, Integer> counterDeltas = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                counterDeltas.clear();
+                List<Object[]> activities = new ArrayList<>();
+                // Post supprimé depuis le toggle : aucune ligne insérée, le like est abandonné
+                int[] inserted = jdbcTemplate.batchUpdate(
+                        "INSERT IGNORE INTO post_likes (post_id, user_id, created_at) " +
+                        "SELECT ?, ?, ? FROM posts WHERE id = ?", inserts);
+                for (int i = 0; i < inserted.length; i++) {
+                    if (inserted[i] > 0) {
+                        LikeKey key = insertKeys.get(i);
+                        counterDeltas.merge(key.postId(), 1, Integer::sum);
+                        activities.add(new Object[]{key.userId(), inserts.get(i)[2], key.postId()});
+                    }
+                }
+                userActivityService.recordPostLikes(activities);
+                int[] deleted = jdbcTemplate.batchUpdate(
+                        "DELETE FROM post_likes WHERE post_id = ? AND user_id = ?", deletes);
+                for (int i = 0; i < deleted.length; i++) {
+                    if (deleted[i] > 0) {
+                        counterDeltas.merge(deleteKeys.get(i).postId(), -1, Integer::sum);
+                    }
+                }
+
+                List<Object[]> counterUpdates = new ArrayList<>();
+                counterDeltas.forEach((postId, delta) -> {
+                    if (delta != 0) {
+                        counterUpdates.add(new Object[]{delta, postId});
+                    }
+                });
+                jdbcTemplate.batchUpdate("UPDATE posts SET likes = likes + ? WHERE id = ?", counterUpdates);
+            });
+        } catch (Exception e) {
+            // Les toggles restent en attente et seront retentés au prochain passage
+            log.error("Like write-behind flush failed ({} pending toggles): {}", snapshot.size(), e.getMessage());
+            return;
+        }
+
+        // La base reflète maintenant l'état capturé : son delta n'est plus en attente, même si
+        // un toggle est arrivé pendant l'écriture. Ce toggle reste en attente, rebasé sur le
+        // nouvel état persisté (seul ce qui a changé depuis la capture reste à écrire).
+        snapshot.forEach((key, like) -> {
+            pending.computeIfPresent(key, (k, current) -> {
+                if (current == like) {
+                    return null;
+                }
+                int remainder = current.delta() - like.delta();
+                return remainder == 0 && current.liked() == like.liked()
+                        ? null
+                        : new PendingLike(current.liked(), remainder, current.at());
+            });
+            addPendingDelta(key.postId(), -like.delta());
+        });
+        log.debug("Flushed {} buffered like toggles", snapshot.size());
+
+        counterDeltas.values().removeIf(delta -> delta == 0);
+        publishLikeCounts(counterDeltas.keySet());
+    }
+
+    // Compteur affiché (persisté + en attente) des posts dont la colonne likes vient de changer
+    private void publishLikeCounts(Set<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        String placeholders = postIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        try {
+            jdbcTemplate.query("SELECT id, category, likes FROM posts WHERE id IN (" + placeholders + ")",
+                    row -> {
+                        long postId = row.getLong("id");
+                        liveUpdateHub.publishAfterCommit(LiveEvent.POST_LIKES, row.getString("category"), postId,
+                                Map.of("likes", row.getInt("likes") + pendingDelta(postId)));
+                    },
+                    postIds.toArray());
+        } catch (Exception e) {
+            log.warn("Could not publish like counts after flush: {}", e.getMessage());
+        }
+    }
+
+    // Atomique par post ; l'entrée est retirée quand le delta retombe à zéro
+    private void addPendingDelta(Long postId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        pendingDeltas.compute(postId, (id, current) -> {
+            int updated = (current == null ? 0 : current) + delta;
+            return updated == 0 ? null : updated;
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
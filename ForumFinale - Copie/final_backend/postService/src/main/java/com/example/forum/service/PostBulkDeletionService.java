@@ -0,0 +1,140 @@
+package com.example.forum.service;
+
+import com.example.forum.dto.BulkDeleteResponse;
+import com.example.forum.live.LiveEvent;
+import com.example.forum.live.LiveUpdateHub;
+import com.example.forum.repository.CommentLikeRepository;
+import com.example.forum.repository.CommentRepository;
+import com.example.forum.repository.PostLikeRepository;
+import com.example.forum.repository.PostRepository;
+import com.example.forum.repository.ReportRepository;
+import com.example.forum.search.PostSearchIndex;
+import com.example.forum.trending.TrendingEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Suppression ensembliste de posts : likes des commentaires, likes du post, commentaires,
+ * signalements puis posts, en une instruction chacun pour tout un lot, au lieu de la
+ * cascade JPA entité par entité. Les purges volumineuses sont découpées en lots bornés,
+ * chacun dans sa propre transaction courte.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostBulkDeletionService {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final CommentLikeRepository commentLikeRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final ReportRepository reportRepository;
+    private final PostSearchIndex postSearchIndex;
+    private final TrendingEngine trendingEngine;
+    private final LiveUpdateHub liveUpdateHub;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${forum.posts.bulk-delete.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${forum.posts.bulk-delete.max-ids:10000}")
+    private int maxIds;
+
+    /**
+     * Supprime un lot de posts et tout ce qui en dépend, dans la transaction de l'appelant.
+     * L'index de recherche et les images sont mis à jour après validation.
+     * Retourne le nombre de posts supprimés.
+     */
+    public int deleteChunk(Collection<Long> requestedIds) {
+        // Seuls les posts existants sont supprimés et annoncés aux abonnés
+        List<Long> postIds = requestedIds.isEmpty() ? List.of() : postRepository.findExistingIds(requestedIds);
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+        // Lues avant la suppression : chaque post rend sa référence sur son image
+        List<String> imageUrls = postRepository.findStoredImageUrls(postIds);
+
+        commentLikeRepository.deleteByPostIds(postIds);
+        postLikeRepository.deleteByPostIds(postIds);
+        commentRepository.deleteByPostIds(postIds);
+        reportRepository.deleteByPostIds(postIds);
+        int deleted = postRepository.deleteByIds(postIds);
+
+        postIds.forEach(postSearchIndex::removeAfterCommit);
+        postIds.forEach(trendingEngine::removeAfterCommit);
+        // Sans catégorie : diffusé à tous les abonnés, chacun ignore les posts qu'il n'affiche pas
+        postIds.forEach(postId -> liveUpdateHub.publishAfterCommit(LiveEvent.POST_DELETED, null, postId, null));
+        imageUrls.forEach(fileStorageService::releaseAfterCommit);
+        return deleted;
+    }
+
+    public BulkDeleteResponse deletePosts(Collection<Long> postIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(postIds));
+        ids.removeIf(Objects::isNull);
+        if (ids.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Trop de posts dans une seule demande (max " + maxIds + ")");
+        }
+
+        int deleted = 0;
+        int chunks = 0;
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<Long> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+            deleted += deleteInTransaction(chunk);
+            chunks++;
+        }
+
+        log.info("Bulk deletion: {} of {} requested post(s) deleted in {} chunk(s)", deleted, ids.size(), chunks);
+        return BulkDeleteResponse.builder()
+                .requested(ids.size())
+                .deleted(deleted)
+                .chunks(chunks)
+                .build();
+    }
+
+    // Tous les posts d'un auteur, lot par lot jusqu'à épuisement
+    public BulkDeleteResponse deletePostsByUser(Long userId) {
+        int requested = 0;
+        int deleted = 0;
+        int chunks = 0;
+        while (true) {
+            List<Long> chunk = postRepository.findIdsByUserId(userId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            int chunkDeleted = deleteInTransaction(chunk);
+            requested += chunk.size();
+            deleted += chunkDeleted;
+            chunks++;
+            if (chunkDeleted == 0) {
+                // Rien n'a pu être supprimé : ne pas relire indéfiniment les mêmes identifiants
+                break;
+            }
+        }
+
+        log.info("Bulk deletion: {} post(s) of user {} deleted in {} chunk(s)", deleted, userId, chunks);
+        return BulkDeleteResponse.builder()
+                .requested(requested)
+                .deleted(deleted)
+                .chunks(chunks)
+                .build();
+    }
+
+    private int deleteInTransaction(List<Long> chunk) {
+        Integer deleted = transactionTemplate.execute(status -> deleteChunk(chunk));
+        return deleted == null ? 0 : deleted;
+    }
+}
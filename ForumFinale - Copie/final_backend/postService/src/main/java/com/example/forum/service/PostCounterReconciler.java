@@ -0,0 +1,80 @@
+package com.example.forum.service;
+
+import com.example.forum.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Répare en arrière-plan la dérive des compteurs de Post.
+ * Parcourt la table par lots d'identifiants bornés et reprend là où le passage
+ * précédent s'est arrêté, sur un thread de basse priorité dédié.
+ */
+@Component
+@ConditionalOnProperty(name = "forum.counters.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PostCounterReconciler {
+
+    private final PostRepository postRepository;
+
+    @Value("${forum.counters.reconcile.batch-size:500}")
+    private int batchSize;
+
+    @Value("${forum.counters.reconcile.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${forum.counters.reconcile.pause-between-batches-ms:200}")
+    private long pauseBetweenBatchesMs;
+
+    // Dernier identifiant traité : seul le thread du planificateur y accède
+    private long lastReconciledId = 0;
+
+    @Scheduled(
+        initialDelayString = "${forum.counters.reconcile.initial-delay-ms:60000}",
+        fixedDelayString = "${forum.counters.reconcile.interval-ms:300000}",
+        scheduler = "counterReconcilerScheduler"
+    )
+    public void reconcile() {
+        int repaired = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = postRepository.findIdsAfter(lastReconciledId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                // Fin de table : le prochain passage repart du début
+                lastReconciledId = 0;
+                break;
+            }
+
+            Long fromId = ids.get(0);
+            Long toId = ids.get(ids.size() - 1);
+            repaired += postRepository.reconcileLikes(fromId, toId);
+            repaired += postRepository.reconcileComments(fromId, toId);
+            repaired += postRepository.reconcileReports(fromId, toId);
+            lastReconciledId = toId;
+
+            if (!pause()) {
+                break;
+            }
+        }
+
+        if (repaired > 0) {
+            log.info("Counter reconciliation repaired {} drifted counter(s)", repaired);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenBatchesMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.forum.service;
+
+import com.example.forum.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Point d'entrée unique pour les compteurs dénormalisés de Post (likes, comments, reports).
+ * Chaque écriture est un UPDATE atomique "col = col + delta" : pas de relecture, pas de
+ * perte de mise à jour entre requêtes concurrentes. La dérive éventuelle est corrigée
+ * en tâche de fond par {@link PostCounterReconciler}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostCounterService {
+
+    private final PostRepository postRepository;
+
+    public void adjustLikes(Long postId, int delta) {
+        apply(postRepository.adjustLikes(postId, delta), "likes", postId);
+    }
+
+    public void adjustComments(Long postId, int delta) {
+        apply(postRepository.adjustComments(postId, delta), "comments", postId);
+    }
+
+    public void adjustReports(Long postId, int delta) {
+        apply(postRepository.adjustReports(postId, delta), "reports", postId);
+    }
+
+    private void apply(int updatedRows, String counter, Long postId) {
+        if (updatedRows == 0) {
+            log.warn("Counter '{}' not updated: post {} does not exist", counter, postId);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.forum.service;
+
+import com.example.forum.dto.CommentResponse;
+import com.example.forum.dto.CommentRow;
+import com.example.forum.dto.PostResponse;
+import com.example.forum.dto.PostRow;
+import com.example.forum.dto.PostView;
+import com.example.forum.dto.UserDTO;
+import com.example.forum.model.Post;
+import com.example.forum.repository.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Construit les PostResponse d'une réponse entière : collecte d'abord tous les
+ * auteurs (posts et commentaires), les résout en un appel groupé, puis assemble.
+ * Le niveau de détail suit le PostView demandé : en SUMMARY, les commentaires ne sont
+ * pas lus ; le like de l'utilisateur courant l'est dans tous les modes.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostResponseAssembler {
+
+    private final UserService userService;
+    private final LikeService likeService;
+    private final CommentRepository commentRepository;
+
+    public PostResponse toResponse(Post post, Long currentUserId) {
+        return toResponse(PostRow.of(post), PostView.FULL, currentUserId);
+    }
+
+    public PostResponse toResponse(PostRow post, PostView view, Long currentUserId) {
+        return toResponses(List.of(post), view, currentUserId).get(0);
+    }
+
+    public List<PostResponse> toResponses(List<PostRow> posts, PostView view, Long currentUserId) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+        List<Long> postIds = posts.stream().map(PostRow::id).toList();
+
+        // 1. Commentaires selon le mode, en une requête pour toute la page
+        Map<Long, List<CommentRow>> commentsByPost = switch (view) {
+            case SUMMARY -> Map.of();
+            case PREVIEW -> groupByPost(commentRepository.findNewestRowsByPostIds(postIds, PostView.PREVIEW_COMMENTS));
+            case FULL -> groupByPost(commentRepository.findRowsByPostIds(postIds));
+        };
+
+        // 2. Collecter une référence par auteur de post et de commentaire
+        List<Long> authorRefs = new ArrayList<>(postIds.size());
+        posts.forEach(post -> authorRefs.add(post.userId()));
+        commentsByPost.values().forEach(comments -> comments.forEach(comment -> authorRefs.add(comment.userId())));
+
+        // 3. Résoudre tous les auteurs distincts en une fois
+        Map<Long, UserDTO> users = userService.getUsersByIds(authorRefs);
+
+        // 4. Likes de l'utilisateur courant pour toute la page, en une requête indexée
+        Set<Long> likedPostIds = likeService.likedPostIds(currentUserId, postIds);
+
+        // 5. Assembler les DTO
+        return posts.stream()
+                .map(post -> assemble(post, view, likedPostIds, commentsByPost, users))
+                .toList();
+    }
+
+    private Map<Long, List<CommentRow>> groupByPost(List<CommentRow> comments) {
+        return comments.stream().collect(Collectors.groupingBy(CommentRow::postId));
+    }
+
+    private PostResponse assemble(PostRow post, PostView view, Set<Long> likedPostIds,
+                                  Map<Long, List<CommentRow>> commentsByPost, Map<Long, UserDTO> users) {
+        UserDTO user = users.get(post.userId());
+
+        PostResponse.PostResponseBuilder response = PostResponse.builder()
+                .id(post.id())
+                .content(post.content())
+                .imageUrl(post.imageUrl())
+                .category(post.category())
+                .userId(user.getId())
+                .username(user.getFirstName() + " " + user.getLastName())
+                .authorAvatar(user.getImage())
+                .likeCount(post.likes() + likeService.pendingPostLikeDelta(post.id()))
+                .commentCount(post.comments())
+                .reportCount(post.reports())
+                .hasUserLiked(likedPostIds.contains(post.id()))
+                .createdAt(post.createdAt());
+
+        if (view != PostView.SUMMARY) {
+            response.comments(commentsByPost.getOrDefault(post.id(), List.of()).stream()
+                            .map(comment -> assembleComment(comment, users))
+                            .toList());
+        }
+        return response.build();
+    }
+
+    private CommentResponse assembleComment(CommentRow comment, Map<Long, UserDTO> users) {
+        UserDTO user = users.get(comment.userId());
+
+        return CommentResponse.builder()
+                .id(comment.id())
+                .content(comment.content())
+                .userId(user.getId())
+                .username(user.getFirstName() + " " + user.getLastName())
+                .userAvatar(user.getImage())
+                .createdAt(comment.createdAt())
+                .build();
+    }
+}
@@ -3,24 +3,37 @@ package com.example.forum.service;
 import com.example.forum.dto.PostRequest;
 import com.example.forum.dto.PostResponse;
 import com.example.forum.dto.UserDTO;
-import com.example.forum.dto.CommentResponse;
+import com.example.forum.dto.CursorPage;
+import com.example.forum.dto.FeedCursor;
+import com.example.forum.dto.PostInteractions;
+import com.example.forum.dto.PostRow;
+import com.example.forum.dto.PostView;
+import com.example.forum.dto.SearchCursor;
 import com.example.forum.exception.ResourceNotFoundException;
+import com.example.forum.live.LiveEvent;
+import com.example.forum.live.LiveUpdateHub;
 import com.example.forum.model.Post;
-import com.example.forum.model.Comment;
 import com.example.forum.repository.PostRepository;
-import com.example.forum.repository.CommentRepository;
+import com.example.forum.search.PostSearchIndex;
+import com.example.forum.trending.TrendingEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,8 +41,25 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PostService {
     private final PostRepository postRepository;
-    private final CommentRepository commentRepository;
     private final UserService userService;
+    private final LikeService likeService;
+    private final PostResponseAssembler postResponseAssembler;
+    private final PostSearchIndex postSearchIndex;
+    private final UserActivityService userActivityService;
+    private final FileStorageService fileStorageService;
+    private final PostBulkDeletionService postBulkDeletionService;
+    private final TrendingEngine trendingEngine;
+    private final LiveUpdateHub liveUpdateHub;
+    private final CommentService commentService;
+
+    @Value("${forum.feed.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${forum.feed.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${forum.posts.bulk-lookup.max-ids:500}")
+    private int maxLookupIds;
 
     @Transactional
     public PostResponse createPost(PostRequest postRequest, Long userId) {
@@ -41,11 +71,15 @@ public class PostService {
         // Fetch user data from UserService
         UserDTO user = userService.getUserById(userId);
 
+        // Image inline (data:) : extraite vers le store, la ligne ne garde qu'une URL courte.
+        // Dans tous les cas le post prend sa propre référence sur l'image
+        String imageUrl = fileStorageService.ingestImageUrl(postRequest.getImageUrl());
+
         Post post = Post.builder()
             .userId(userId)
             .authorAvatar(user.getImage() != null ? user.getImage() : "/placeholder.svg")
             .content(postRequest.getContent())
-            .imageUrl(postRequest.getImageUrl())
+            .imageUrl(imageUrl)
             .category(postRequest.getCategory())
             .likes(0)
             .comments(0)
@@ -53,76 +87,147 @@ public class PostService {
             .build();
 
         Post savedPost = postRepository.save(post);
+        postSearchIndex.indexAfterCommit(savedPost);
+        trendingEngine.recordPostAfterCommit(savedPost);
+        userActivityService.recordPost(savedPost);
 
-        return mapToDto(savedPost, userId);
+        PostResponse response = mapToDto(savedPost, userId);
+        liveUpdateHub.publishAfterCommit(LiveEvent.POST_CREATED, savedPost.getCategory(), savedPost.getId(), response);
+        return response;
     }
 
-    @Transactional
-    public List<PostResponse> getAllPosts(Long currentUserId) {
+    @Transactional(readOnly = true)
+    public List<PostResponse> getAllPosts(PostView view, Long currentUserId) {
         // Handle anonymous user (userId = 0) or null
         Long effectiveUserId = (currentUserId == null || currentUserId == 0) ? null : currentUserId;
 
-        List<Post> posts = postRepository.findAll();
+        List<PostRow> posts = postRepository.findAllRows();
+
+        return postResponseAssembler.toResponses(posts, view, effectiveUserId);
+    }
 
-        // Synchroniser le nombre de commentaires pour tous les posts
-        posts.forEach(this::synchronizeCommentCount);
+    @Transactional(readOnly = true)
+    public List<PostResponse> getPostsByCategory(String category, PostView view, Long currentUserId) {
+        Long effectiveUserId = (currentUserId == null || currentUserId == 0) ? null : currentUserId;
 
-        return posts.stream()
-                .map(post -> mapToDto(post, effectiveUserId))
-                .collect(Collectors.toList());
+        List<PostRow> posts = postRepository.findRowsByCategory(category);
+
+        return postResponseAssembler.toResponses(posts, view, effectiveUserId);
     }
 
-    @Transactional
-    public List<PostResponse> getPostsByCategory(String category, Long currentUserId) {
+    // Sans page ni size, tous les résultats comme avant l'index ; sinon une page de taille bornée
+    @Transactional(readOnly = true)
+    public List<PostResponse> searchPosts(String query, Integer page, Integer size, PostView view, Long currentUserId) {
         Long effectiveUserId = (currentUserId == null || currentUserId == 0) ? null : currentUserId;
+        int pageSize = page == null && size == null ? Integer.MAX_VALUE : pageSize(size);
+        int offset = Math.max(0, page == null ? 0 : page) * pageSize;
 
-        List<Post> posts = postRepository.findByCategory(category);
+        PostSearchIndex.SearchHits hits = postSearchIndex.search(query, offset, pageSize);
 
-        // Synchroniser le nombre de commentaires pour tous les posts
-        posts.forEach(this::synchronizeCommentCount);
+        return postResponseAssembler.toResponses(loadInRankOrder(hits.postIds()), view, effectiveUserId);
+    }
 
-        return posts.stream()
-                .map(post -> mapToDto(post, effectiveUserId))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getFeed(String cursor, Integer size, PostView view, Long currentUserId) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable limit = pageLimit(size);
+
+        List<PostRow> posts = position == null
+                ? postRepository.findFeedFirstPage(limit)
+                : postRepository.findFeedAfter(position.createdAt(), position.id(), limit);
+
+        return toPage(posts, limit.getPageSize() - 1, view, currentUserId);
     }
 
-    @Transactional
-    public List<PostResponse> searchPosts(String query, Long currentUserId) {
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getFeedByCategory(String category, String cursor, Integer size, PostView view,
+                                                      Long currentUserId) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable limit = pageLimit(size);
+
+        List<PostRow> posts = position == null
+                ? postRepository.findCategoryFeedFirstPage(category, limit)
+                : postRepository.findCategoryFeedAfter(category, position.createdAt(), position.id(), limit);
+
+        return toPage(posts, limit.getPageSize() - 1, view, currentUserId);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> searchFeed(String query, String cursor, Integer size, PostView view,
+                                               Long currentUserId) {
+        Long effectiveUserId = (currentUserId == null || currentUserId == 0) ? null : currentUserId;
+        int offset = SearchCursor.decodeOffset(cursor);
+        int pageSize = pageSize(size);
+
+        PostSearchIndex.SearchHits hits = postSearchIndex.search(query, offset, pageSize);
+        boolean hasMore = offset + pageSize < hits.total();
+
+        return CursorPage.<PostResponse>builder()
+                .items(postResponseAssembler.toResponses(loadInRankOrder(hits.postIds()), view, effectiveUserId))
+                .nextCursor(hasMore ? new SearchCursor(offset + pageSize).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Classement tenu en mémoire : seules les K lignes affichées sont lues, par clé primaire
+    @Transactional(readOnly = true)
+    public List<PostResponse> getTrending(String category, Integer size, PostView view, Long currentUserId) {
         Long effectiveUserId = (currentUserId == null || currentUserId == 0) ? null : currentUserId;
+        int limit = Math.min(pageSize(size), trendingEngine.getTopK());
 
-        List<Post> posts = postRepository.findByContentContainingIgnoreCase(query);
+        List<Long> postIds = trendingEngine.top(category, limit);
+        return postResponseAssembler.toResponses(loadInRankOrder(postIds), view, effectiveUserId);
+    }
 
-        // Synchroniser le nombre de commentaires pour tous les posts
-        posts.forEach(this::synchronizeCommentCount);
+    // Charge les posts par clé primaire en conservant l'ordre de pertinence de l'index
+    private List<PostRow> loadInRankOrder(List<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PostRow> posts = postRepository.findRowsByIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostRow::id, Function.identity()));
+        return postIds.stream()
+                .map(posts::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private int pageSize(Integer size) {
+        return size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+    }
 
-        return posts.stream()
-                .map(post -> mapToDto(post, effectiveUserId))
-                .collect(Collectors.toList());
+    // On demande une ligne de plus que la taille de page pour savoir s'il reste des résultats
+    private Pageable pageLimit(Integer size) {
+        return PageRequest.of(0, pageSize(size) + 1);
+    }
+
+    private CursorPage<PostResponse> toPage(List<PostRow> posts, int pageSize, PostView view, Long currentUserId) {
+        Long effectiveUserId = (currentUserId == null || currentUserId == 0) ? null : currentUserId;
+
+        boolean hasMore = posts.size() > pageSize;
+        List<PostRow> page = hasMore ? posts.subList(0, pageSize) : posts;
+
+        String nextCursor = null;
+        if (hasMore) {
+            PostRow last = page.get(page.size() - 1);
+            nextCursor = new FeedCursor(last.createdAt(), last.id()).encode();
+        }
+
+        return CursorPage.<PostResponse>builder()
+                .items(postResponseAssembler.toResponses(page, view, effectiveUserId))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Transactional
     public void deletePost(Long id) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Post non trouvé avec l'id: " + id));
-
-        // 1. Clear the post likes relationship (post_likes table)
-        post.getLikedByUsers().clear();
-
-        // 2. Clear comment likes relationships (comment_likes table)
-        for (Comment comment : post.getCommentList()) {
-            // Create a new list to avoid ConcurrentModificationException
-            Set<Long> likedByUsersCopy = new HashSet<>(comment.getLikedByUsers());
-            for (Long user : likedByUsersCopy) {
-                comment.getLikedByUsers().remove(user);
-            }
+        if (!postRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Post non trouvé avec l'id: " + id);
         }
 
-        // Save the changes to ensure all relationships are properly updated in the database
-        postRepository.save(post);
-
-        // Now it's safe to delete the post
-        // The cascade will handle deleting comments and reports
-        postRepository.delete(post);
+        // Likes, commentaires, signalements puis le post : quelques instructions ensemblistes
+        postBulkDeletionService.deleteChunk(List.of(id));
     }
 
     @Transactional
@@ -135,13 +240,20 @@ public class PostService {
 
         // Mettre à jour les champs modifiables
         post.setContent(postRequest.getContent());
+        if (!Objects.equals(post.getCategory(), postRequest.getCategory())) {
+            trendingEngine.moveAfterCommit(id, postRequest.getCategory());
+        }
         post.setCategory(postRequest.getCategory());
-        if (postRequest.getImageUrl() != null) {
-            post.setImageUrl(postRequest.getImageUrl());
+        if (postRequest.getImageUrl() != null && !postRequest.getImageUrl().equals(post.getImageUrl())) {
+            // Référence prise pour la nouvelle image, rendue pour l'ancienne (même blob : net nul)
+            String imageUrl = fileStorageService.ingestImageUrl(postRequest.getImageUrl());
+            fileStorageService.releaseAfterCommit(post.getImageUrl());
+            post.setImageUrl(imageUrl);
         }
 
         // Sauvegarder les modifications
         Post updatedPost = postRepository.save(post);
+        postSearchIndex.indexAfterCommit(updatedPost);
 
         // Convertir en DTO et retourner
         return mapToDto(updatedPost, post.getUserId());
@@ -153,24 +265,24 @@ public class PostService {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Vous devez être connecté pour aimer un post");
         }
 
-        Post post = postRepository.findById(postId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post non trouvé"));
+        if (!postRepository.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post non trouvé");
+        }
 
         // Verify user exists
         userService.getUserById(userId);
 
-        boolean hasLiked = post.getLikedByUsers().contains(userId);
-
-        if (hasLiked) {
-            post.getLikedByUsers().remove(userId);
-            post.setLikes(post.getLikes() - 1);
-        } else {
-            post.getLikedByUsers().add(userId);
-            post.setLikes(post.getLikes() + 1);
-        }
+        boolean liked = likeService.togglePostLike(postId, userId);
 
-        Post updatedPost = postRepository.save(post);
-        return mapToDto(updatedPost, userId);
+        // Chargé après le toggle pour refléter le compteur mis à jour atomiquement
+        Post updatedPost = postRepository.findById(postId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post non trouvé"));
+        trendingEngine.recordLikeAfterCommit(postId, updatedPost.getCategory(), liked);
+        PostResponse response = mapToDto(updatedPost, userId);
+        // Même compteur que la réponse : likes en attente du write-behind compris
+        liveUpdateHub.publishAfterCommit(LiveEvent.POST_LIKES, updatedPost.getCategory(), postId,
+                Map.of("likes", response.getLikeCount()));
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -179,72 +291,63 @@ public class PostService {
             return false;
         }
 
-        Post post = postRepository.findById(postId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post non trouvé"));
+        if (!postRepository.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post non trouvé");
+        }
 
-        return post.getLikedByUsers().contains(userId);
+        return likeService.hasLikedPost(postId, userId);
     }
 
+    // Remplace un appel count + hasLiked par post affiché : deux requêtes pour toute la liste
     @Transactional(readOnly = true)
-    public PostResponse getPostById(Long id, Long userId) {
-        Post post = postRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post non trouvé"));
+    public Map<Long, PostInteractions> getInteractions(List<Long> postIds, Long userId) {
+        List<Long> ids = distinctLookupIds(postIds);
+        Map<Long, Integer> comments = commentService.getCommentCounts(ids);
+        Set<Long> liked = likeService.likedPostIds(userId, ids);
+
+        Map<Long, PostInteractions> interactions = new LinkedHashMap<>();
+        for (Long id : ids) {
+            interactions.put(id, PostInteractions.builder()
+                    .comments(comments.getOrDefault(id, 0))
+                    .hasLiked(liked.contains(id))
+                    .build());
+        }
+        return interactions;
+    }
 
-        // Synchroniser le nombre de commentaires avec le nombre réel
-        synchronizeCommentCount(post);
+    @Transactional(readOnly = true)
+    public Map<Long, Boolean> getLikedFlags(List<Long> postIds, Long userId) {
+        List<Long> ids = distinctLookupIds(postIds);
+        Set<Long> liked = likeService.likedPostIds(userId, ids);
 
-        return mapToDto(post, userId);
+        Map<Long, Boolean> flags = new LinkedHashMap<>();
+        ids.forEach(id -> flags.put(id, liked.contains(id)));
+        return flags;
     }
 
-    @Transactional
-    public void synchronizeCommentCount(Post post) {
-        // Compter le nombre réel de commentaires pour ce post en utilisant le repository
-        int actualCommentCount = commentRepository.countByPost_Id(post.getId());
-
-        // Mettre à jour le champ comments si nécessaire
-        if (post.getComments() != actualCommentCount) {
-            post.setComments(actualCommentCount);
-            postRepository.save(post);
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getCommentCounts(List<Long> postIds) {
+        return commentService.getCommentCounts(distinctLookupIds(postIds));
+    }
+
+    private List<Long> distinctLookupIds(List<Long> postIds) {
+        List<Long> ids = postIds == null ? List.of() : postIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > maxLookupIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Trop d'identifiants de posts (max " + maxLookupIds + ")");
         }
+        return ids;
     }
 
-    private PostResponse mapToDto(Post post, Long currentUserId) {
-        // Fetch user data from UserService
-        UserDTO user = userService.getUserById(post.getUserId());
-
-        boolean hasUserLiked = currentUserId != null && currentUserId != 0 &&
-            post.getLikedByUsers().contains(currentUserId);
-
-        return PostResponse.builder()
-                .id(post.getId())
-                .content(post.getContent())
-                .imageUrl(post.getImageUrl())
-                .category(post.getCategory())
-                .userId(user.getId())
-                .username(user.getFirstName() + " " + user.getLastName())
-                .authorAvatar(user.getImage())
-                .likeCount(post.getLikes())
-                .commentCount(post.getComments())
-                .reportCount(post.getReports())
-                .hasUserLiked(hasUserLiked)
-                .comments(post.getCommentList().stream()
-                        .map(this::mapCommentToDto)
-                        .toList())
-                .createdAt(post.getCreatedAt())
-                .build();
+    @Transactional(readOnly = true)
+    public PostResponse getPostById(Long id, PostView view, Long userId) {
+        PostRow post = postRepository.findRowById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post non trouvé"));
+
+        return postResponseAssembler.toResponse(post, view, userId);
     }
 
-    private CommentResponse mapCommentToDto(Comment comment) {
-        // Fetch user data from UserService
-        UserDTO user = userService.getUserById(comment.getUserId());
-
-        return CommentResponse.builder()
-                .id(comment.getId())
-                .content(comment.getContent())
-                .userId(user.getId())
-                .username(user.getFirstName() + " " + user.getLastName())
-                .userAvatar(user.getImage())
-                .createdAt(comment.getCreatedAt())
-                .build();
+    private PostResponse mapToDto(Post post, Long currentUserId) {
+        return postResponseAssembler.toResponse(post, currentUserId);
     }
 }
\ No newline at end of file
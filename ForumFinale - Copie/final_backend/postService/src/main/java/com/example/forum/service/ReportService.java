@@ -1,6 +1,13 @@
 package com.example.forum.service;
 
+import com.example.forum.dto.CursorPage;
+import com.example.forum.dto.FeedCursor;
+import com.example.forum.dto.PostRow;
+import com.example.forum.dto.ReportGroupRow;
+import com.example.forum.dto.ReportQueueItem;
 import com.example.forum.dto.ReportResponse;
+import com.example.forum.dto.ReportRow;
+import com.example.forum.dto.UserDTO;
 import com.example.forum.model.Report;
 import com.example.forum.exception.ResourceNotFoundException;
 import com.example.forum.model.Post;
@@ -8,12 +15,23 @@ import com.example.forum.repository.ReportRepository;
 import com.example.forum.repository.PostRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
@@ -27,6 +45,19 @@ public class ReportService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Value("${forum.reports.queue.default-page-size:20}")
+    private int defaultQueuePageSize;
+
+    @Value("${forum.reports.queue.max-page-size:100}")
+    private int maxQueuePageSize;
+
+    @Value("${forum.reports.queue.reports-per-post:10}")
+    private int reportsPerPost;
+
+    @Transactional
     public Report createReport(Long postId, Long userId, String reason) throws ResourceNotFoundException {
         if (reportRepository.existsByUserIdAndPost_Id(userId, postId)) {
             //throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You have already reported this post");
@@ -47,10 +78,10 @@ public class ReportService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        post.setReports(post.getReports() + 1);
-        postRepository.save(post);
+        Report savedReport = reportRepository.save(report);
+        postCounterService.adjustReports(post.getId(), 1);
 
-        return reportRepository.save(report);
+        return savedReport;
     }
 
     public List<Report> getReportsByPostId(Long postId) {
@@ -65,32 +96,129 @@ public class ReportService {
         return reportRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<ReportResponse> getPendingReportsSimple() {
-        List<Report> reports = reportRepository.findByStatusOrderByCreatedAtDesc("PENDING");
+        List<Report> reports = reportRepository.findWithPostByStatus("PENDING");
+
+        // Signaleurs et auteurs résolus en un seul appel groupé
+        List<Long> userRefs = new ArrayList<>();
+        for (Report report : reports) {
+            userRefs.add(report.getUserId());
+            userRefs.add(report.getPost().getUserId());
+        }
+        Map<Long, UserDTO> users = userService.getUsersByIds(userRefs);
+
         return reports.stream()
-            .map(this::mapToDto)
+            .map(report -> mapToDto(report, users))
             .toList();
     }
 
-    private ReportResponse mapToDto(Report report) {
-        // Récupérer les informations de l'utilisateur qui a signalé
-        com.example.forum.dto.UserDTO reporterUser = null;
-        try {
-            reporterUser = userService.getUserById(report.getUserId());
-        } catch (Exception e) {
-            // Si l'utilisateur n'existe pas, on continue avec des valeurs par défaut
-            System.out.println("Utilisateur non trouvé pour le signalement: " + report.getUserId());
+    /**
+     * File de modération : une entrée par post ayant des signalements en attente, avec le
+     * nombre de signalements, les motifs distincts et les plus récents. Chaque page coûte
+     * un nombre fixe de requêtes et un seul appel groupé au service utilisateurs.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ReportQueueItem> getModerationQueue(String cursor, Integer size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        int pageSize = size == null || size <= 0 ? defaultQueuePageSize : Math.min(size, maxQueuePageSize);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        // 1. Dernier signalement de chaque post de la page (une ligne de plus pour savoir s'il en reste),
+        //    puis les agrégats de ces seuls posts
+        List<ReportRow> heads = position == null
+            ? reportRepository.findQueueFirstPage(limit)
+            : reportRepository.findQueueAfter(position.createdAt(), position.id(), limit);
+        boolean hasMore = heads.size() > pageSize;
+        List<ReportRow> pageHeads = hasMore ? heads.subList(0, pageSize) : heads;
+        List<Long> postIds = pageHeads.stream().map(ReportRow::postId).toList();
+        Map<Long, ReportGroupRow> groups = postIds.isEmpty() ? Map.of()
+            : reportRepository.findQueueGroups(postIds).stream()
+                .collect(Collectors.toMap(ReportGroupRow::postId, Function.identity()));
+        // Un post traité entre les deux requêtes n'a plus de groupe : il sort de la page
+        List<ReportGroupRow> page = postIds.stream().map(groups::get).filter(Objects::nonNull).toList();
+
+        // 2. Posts, motifs et derniers signalements de toute la page
+        Map<Long, PostRow> posts = postIds.isEmpty() ? Map.of()
+            : postRepository.findRowsByIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostRow::id, Function.identity()));
+        Map<Long, TreeSet<String>> reasons = new LinkedHashMap<>();
+        Map<Long, List<ReportRow>> latest = new LinkedHashMap<>();
+        if (!postIds.isEmpty()) {
+            for (Object[] row : reportRepository.findPendingReasons(postIds)) {
+                reasons.computeIfAbsent((Long) row[0], id -> new TreeSet<>()).add((String) row[1]);
+            }
+            for (ReportRow report : reportRepository.findLatestPendingByPostIds(postIds, reportsPerPost)) {
+                latest.computeIfAbsent(report.postId(), id -> new ArrayList<>()).add(report);
+            }
         }
 
-        // Récupérer les informations de l'auteur de la publication
-        com.example.forum.dto.UserDTO postAuthor = null;
-        try {
-            postAuthor = userService.getUserById(report.getPost().getUserId());
-        } catch (Exception e) {
-            // Si l'utilisateur n'existe pas, on continue avec des valeurs par défaut
-            System.out.println("Auteur non trouvé pour la publication: " + report.getPost().getUserId());
+        // 3. Auteurs et signaleurs résolus en une fois
+        List<Long> userRefs = new ArrayList<>();
+        posts.values().forEach(post -> userRefs.add(post.userId()));
+        latest.values().forEach(reports -> reports.forEach(report -> userRefs.add(report.userId())));
+        Map<Long, UserDTO> users = userService.getUsersByIds(userRefs);
+
+        List<ReportQueueItem> items = page.stream()
+            .map(group -> mapToQueueItem(group, posts.get(group.postId()),
+                reasons.getOrDefault(group.postId(), new TreeSet<>()),
+                latest.getOrDefault(group.postId(), List.of()), users))
+            .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            ReportRow last = pageHeads.get(pageHeads.size() - 1);
+            nextCursor = new FeedCursor(last.createdAt(), last.id()).encode();
         }
 
+        return CursorPage.<ReportQueueItem>builder()
+            .items(items)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .totalCount(reportRepository.countPostsWithPendingReports())
+            .build();
+    }
+
+    private ReportQueueItem mapToQueueItem(ReportGroupRow group, PostRow post, TreeSet<String> reasons,
+                                           List<ReportRow> latestReports, Map<Long, UserDTO> users) {
+        UserDTO postAuthor = post != null ? users.get(post.userId()) : null;
+
+        return ReportQueueItem.builder()
+            .postId(group.postId())
+            .postContent(post != null ? post.content() : null)
+            .postImageUrl(post != null ? post.imageUrl() : null)
+            .postAuthorId(post != null ? post.userId() : null)
+            .postAuthor(postAuthor != null ? postAuthor.getFirstName() + " " + postAuthor.getLastName() : "Auteur inconnu")
+            .postAuthorAvatar(postAuthor != null ? postAuthor.getImage() : null)
+            .pendingCount(group.pendingCount())
+            .reasons(new ArrayList<>(reasons))
+            .firstReportedAt(group.firstReportedAt())
+            .lastReportedAt(group.lastReportedAt())
+            .latestReports(latestReports.stream()
+                .map(report -> {
+                    UserDTO reporter = users.get(report.userId());
+                    return ReportResponse.builder()
+                        .id(report.id())
+                        .reason(report.reason())
+                        .status(report.status())
+                        .userId(report.userId())
+                        .username(reporter != null ? reporter.getFirstName() + " " + reporter.getLastName() : "Utilisateur inconnu")
+                        .userAvatar(reporter != null ? reporter.getImage() : null)
+                        .postId(report.postId())
+                        .createdAt(report.createdAt())
+                        .build();
+                })
+                .toList())
+            .build();
+    }
+
+    private ReportResponse mapToDto(Report report, Map<Long, UserDTO> users) {
+        // Informations de l'utilisateur qui a signalé
+        UserDTO reporterUser = users.get(report.getUserId());
+
+        // Informations de l'auteur de la publication
+        UserDTO postAuthor = users.get(report.getPost().getUserId());
+
         return ReportResponse.builder()
             .id(report.getId())
             .reason(report.getReason())
@@ -119,14 +247,13 @@ public class ReportService {
         return reportRepository.save(report);
     }
 
+    @Transactional
     public void deleteReport(Long id) {
         Report report = reportRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report not found"));
 
-        Post post = report.getPost();
-        post.setReports(post.getReports() - 1);
-        postRepository.save(post);
-
-        reportRepository.deleteById(id);
+        Long postId = report.getPost().getId();
+        reportRepository.delete(report);
+        postCounterService.adjustReports(postId, -1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.forum.service;
+
+import java.time.Duration;
+
+/**
+ * Échéance de la requête HTTP en cours, posée par RequestDeadlineInterceptor et lue par les
+ * appels distants du chemin d'enrichissement : chacun ne dispose que du temps restant, au
+ * lieu d'un délai complet par appel. Absente hors requête (tâches de fond).
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(Duration budget) {
+        DEADLINE_NANOS.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    // Temps restant (éventuellement négatif), ou null sans échéance
+    public static Duration remaining() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? null : Duration.ofNanos(deadline - System.nanoTime());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.forum.service;
+
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.MediaStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Résout le nom d'un fichier uploadé vers son chemin et ses métadonnées de cache
+ * (taille, date, ETag, type), une seule fois par nom : le résultat est gardé en mémoire
+ * et retiré quand le MediaStore libère le fichier ou quand il a disparu du disque.
+ * Seules les résolutions réussies sont gardées, un fichier absent est recherché à nouveau.
+ * Une largeur demandée (?w=) est ramenée à la variante servie, ce qui borne les entrées
+ * par fichier ; tant que la variante n'est pas générée, l'original est servi sans être gardé.
+ */
+@Component
+@Slf4j
+public class UploadedFileResolver {
+
+    // Noms produits par le MediaStore : <sha256>.<extension>, contenu immuable
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+
+    // provisional : original servi en attendant la variante demandée, à ne pas garder en cache HTTP
+    public record ResolvedFile(Path path, long size, long lastModified, String etag,
+                               String contentType, boolean immutable, boolean provisional) {
+
+        ResolvedFile asProvisional() {
+            return new ResolvedFile(path, size, lastModified, etag, contentType, immutable, true);
+        }
+    }
+
+    private final MediaStore mediaStore;
+    private final ImageVariants imageVariants;
+    private final String uploadDir;
+    private final int maxEntries;
+    private final Map<String, ResolvedFile> cache = new ConcurrentHashMap<>();
+
+    public UploadedFileResolver(MediaStore mediaStore, ImageVariants imageVariants,
+                                @Value("${file.upload-dir:uploads}") String uploadDir,
+                                @Value("${forum.uploads.resolution-cache-size:10000}") int maxEntries) {
+        this.mediaStore = mediaStore;
+        this.imageVariants = imageVariants;
+        this.uploadDir = uploadDir;
+        this.maxEntries = maxEntries;
+    }
+
+    public Optional<ResolvedFile> resolve(String filename) {
+        if (!isSafeName(filename)) {
+            return Optional.empty();
+        }
+        ResolvedFile cached = cache.get(filename);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<ResolvedFile> resolved = locate(filename);
+        resolved.ifPresent(file -> put(filename, file));
+        return resolved;
+    }
+
+    // Variante d'au moins width pixels, ou l'original quand aucune ne s'applique
+    public Optional<ResolvedFile> resolve(String filename, Integer width) {
+        int variantWidth = width == null ? -1 : imageVariants.normalizeWidth(width);
+        if (variantWidth < 0 || !isSafeName(filename)) {
+            return resolve(filename);
+        }
+        String key = filename + "@" + variantWidth;
+        ResolvedFile cached = cache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<Path> variant = imageVariants.resolve(filename, variantWidth);
+        if (variant.isEmpty()) {
+            Optional<ResolvedFile> original = resolve(filename);
+            if (imageVariants.isGenerated(filename)) {
+                // Image plus étroite que la variante : l'original est la réponse définitive
+                original.ifPresent(file -> put(key, file));
+                return original;
+            }
+            return original.map(ResolvedFile::asProvisional);
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(variant.get(), BasicFileAttributes.class);
+            ResolvedFile file = describe(filename, variant.get(), attributes, variantWidth);
+            put(key, file);
+            return Optional.of(file);
+        } catch (IOException e) {
+            return resolve(filename);
+        }
+    }
+
+    public void evict(String filename) {
+        if (filename != null) {
+            cache.keySet().removeIf(key -> key.equals(filename) || key.startsWith(filename + "@"));
+        }
+    }
+
+    private void put(String key, ResolvedFile file) {
+        if (cache.size() >= maxEntries) {
+            // Borne simple : les entrées se reconstruisent à la demande
+            cache.clear();
+        }
+        cache.put(key, file);
+    }
+
+    private Optional<ResolvedFile> locate(String filename) {
+        for (Path candidate : candidatePaths(filename)) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(candidate, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    return Optional.of(describe(filename, candidate.toAbsolutePath().normalize(), attributes, -1));
+                }
+            } catch (IOException e) {
+                // Absent à cet emplacement : essayer le suivant
+            }
+        }
+        log.debug("File not found: {}", filename);
+        return Optional.empty();
+    }
+
+    // Store d'abord, puis les emplacements historiques (lancement depuis un autre répertoire)
+    private List<Path> candidatePaths(String filename) {
+        List<Path> paths = new ArrayList<>();
+        mediaStore.resolve(filename).ifPresent(paths::add);
+        paths.add(Paths.get(uploadDir, filename).normalize());
+        paths.add(Paths.get("..", uploadDir, filename).normalize());
+
+        String workspaceRoot = System.getProperty("user.dir");
+        if (workspaceRoot.endsWith("Backend")) {
+            workspaceRoot = workspaceRoot.substring(0, workspaceRoot.length() - "Backend".length());
+        }
+        paths.add(Paths.get(workspaceRoot, uploadDir, filename).normalize());
+        return paths;
+    }
+
+    private ResolvedFile describe(String filename, Path path, BasicFileAttributes attributes, int variantWidth) {
+        long size = attributes.size();
+        // Les dates HTTP sont à la seconde : on tronque pour que If-Modified-Since corresponde
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        boolean immutable = CONTENT_ADDRESSED.matcher(filename).matches();
+
+        // Nom adressé par contenu : le hash (et la largeur) est un ETag fort ; sinon taille et date
+        String etag = immutable
+                ? "\"" + filename.substring(0, 64) + (variantWidth > 0 ? "-w" + variantWidth : "") + "\""
+                : "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        String contentType = determineContentType(path.getFileName().toString());
+        return new ResolvedFile(path, size, lastModified, etag, contentType, immutable, false);
+    }
+
+    private static boolean isSafeName(String filename) {
+        return filename != null && !filename.isBlank()
+                && !filename.contains("/") && !filename.contains("\\")
+                && !filename.startsWith(".") && !filename.contains("..");
+    }
+
+    private static String determineContentType(String filename) {
+        String extension = filename.substring(filename.lastIndexOf(".") + 1).toLowerCase(Locale.ROOT);
+        switch (extension) {
+            case "png":
+                return "image/png";
+            case "jpg":
+            case "jpeg":
+                return "image/jpeg";
+            case "gif":
+                return "image/gif";
+            case "webp":
+                return "image/webp";
+            case "svg":
+                return "image/svg+xml";
+            default:
+                try {
+                    String probed = Files.probeContentType(Paths.get(filename));
+                    return probed != null ? probed : "application/octet-stream";
+                } catch (IOException e) {
+                    return "application/octet-stream";
+                }
+        }
+    }
+}
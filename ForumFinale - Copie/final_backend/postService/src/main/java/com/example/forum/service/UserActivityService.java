@@ -1,97 +1,266 @@
 package com.example.forum.service;
 
+import com.example.forum.dto.CursorPage;
+import com.example.forum.dto.FeedCursor;
 import com.example.forum.model.Comment;
+import com.example.forum.model.CommentLike;
 import com.example.forum.model.Post;
+import com.example.forum.model.PostLike;
 import com.example.forum.model.UserActivity;
+import com.example.forum.repository.CommentLikeRepository;
 import com.example.forum.repository.CommentRepository;
+import com.example.forum.repository.PostLikeRepository;
 import com.example.forum.repository.PostRepository;
+import com.example.forum.repository.UserActivityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+/**
+ * Journal d'activité des utilisateurs (posts, commentaires et likes).
+ * Chaque action ajoute une ligne au moment de l'écriture ; la timeline est lue par
+ * curseur sur l'index (user_id, created_at, id), sans parcourir les autres tables.
+ * Le journal n'est jamais réécrit : les likes retirés et les contenus supprimés
+ * sont filtrés à la lecture, par lots, pour la page demandée.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserActivityService {
 
+    public static final String POST = "POST";
+    public static final String POST_LIKE = "POST_LIKE";
+    public static final String COMMENT = "COMMENT";
+    public static final String COMMENT_LIKE = "COMMENT_LIKE";
+
+    private static final int TITLE_LENGTH = 50;
+
+    // Nombre maximal de lectures successives pour remplir une page malgré les lignes filtrées
+    private static final int MAX_SCAN_ROUNDS = 5;
+
+    // Extrait calculé en SQL, identique à truncateContent
+    private static final String TITLE_SQL =
+            "CASE WHEN CHAR_LENGTH(%1$s) <= " + TITLE_LENGTH + " THEN %1$s " +
+            "ELSE CONCAT(LEFT(%1$s, " + TITLE_LENGTH + "), '...') END";
+
+    // Paramètres : user_id, created_at, post_id
+    private static final String INSERT_POST_LIKE_SQL =
+            "INSERT INTO user_activities (user_id, activity_type, target_id, post_id, target_title, created_at) " +
+            "SELECT ?, '" + POST_LIKE + "', p.id, p.id, " + TITLE_SQL.formatted("p.content") + ", ? " +
+            "FROM posts p WHERE p.id = ?";
+
+    // Paramètres : user_id, created_at, comment_id
+    private static final String INSERT_COMMENT_LIKE_SQL =
+            "INSERT INTO user_activities (user_id, activity_type, target_id, post_id, target_title, created_at) " +
+            "SELECT ?, '" + COMMENT_LIKE + "', c.id, c.post_id, " + TITLE_SQL.formatted("c.content") + ", ? " +
+            "FROM comments c WHERE c.id = ?";
+
+    private final UserActivityRepository userActivityRepository;
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
-    private final PostService postService;
-    private final CommentService commentService;
-
-    public List<UserActivity> getUserActivities(Long userId) {
-        List<UserActivity> activities = new ArrayList<>();
-
-        // Récupérer les posts créés par l'utilisateur
-        List<Post> userPosts = postRepository.findByUserId(userId);
-        for (Post post : userPosts) {
-            activities.add(UserActivity.builder()
-                    .id(post.getId())
-                    .userId(userId)
-                    .activityType("POST")
-                    .targetId(post.getId())
-                    .content(post.getContent())
-                    .createdAt(post.getCreatedAt())
-                    .targetTitle(truncateContent(post.getContent(), 50))
-                    .build());
+    private final PostLikeRepository postLikeRepository;
+    private final CommentLikeRepository commentLikeRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${forum.activities.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${forum.activities.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${forum.activities.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    // --- Écriture : appelée dans la transaction de l'action ---
+
+    public void recordPost(Post post) {
+        userActivityRepository.save(UserActivity.builder()
+                .userId(post.getUserId())
+                .activityType(POST)
+                .targetId(post.getId())
+                .postId(post.getId())
+                .content(post.getContent())
+                .targetTitle(truncateContent(post.getContent(), TITLE_LENGTH))
+                .createdAt(post.getCreatedAt() != null ? post.getCreatedAt() : LocalDateTime.now())
+                .build());
+    }
+
+    public void recordComment(Comment comment) {
+        userActivityRepository.save(UserActivity.builder()
+                .userId(comment.getUserId())
+                .activityType(COMMENT)
+                .targetId(comment.getId())
+                .postId(comment.getPost().getId())
+                .content(comment.getContent())
+                .targetTitle(truncateContent(comment.getContent(), TITLE_LENGTH))
+                .createdAt(comment.getCreatedAt())
+                .build());
+    }
+
+    // likedAt doit être la valeur écrite dans post_likes.created_at : elle identifie ce like à la lecture
+    public void recordPostLike(Long userId, Long postId, LocalDateTime likedAt) {
+        jdbcTemplate.update(INSERT_POST_LIKE_SQL, userId, Timestamp.valueOf(likedAt), postId);
+    }
+
+    // Lignes : {user_id, created_at (Timestamp), post_id}
+    public void recordPostLikes(List<Object[]> likes) {
+        if (!likes.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_POST_LIKE_SQL, likes);
         }
+    }
 
-        // Récupérer les posts likés par l'utilisateur
-        List<Post> allPosts = postRepository.findAll();
-        for (Post post : allPosts) {
-            if (post.getLikedByUsers().contains(userId)) {
-                activities.add(UserActivity.builder()
-                        .id(post.getId() + 10000) // Pour éviter les conflits d'ID
-                        .userId(userId)
-                        .activityType("POST_LIKE")
-                        .targetId(post.getId())
-                        .createdAt(post.getCreatedAt()) // Approximation, car nous n'avons pas la date exacte du like
-                        .targetTitle(truncateContent(post.getContent(), 50))
-                        .postId(post.getId())
-                        .build());
+    public void recordCommentLike(Long userId, Long commentId, LocalDateTime likedAt) {
+        jdbcTemplate.update(INSERT_COMMENT_LIKE_SQL, userId, Timestamp.valueOf(likedAt), commentId);
+    }
+
+    // --- Lecture ---
+
+    @Transactional(readOnly = true)
+    public CursorPage<UserActivity> getUserActivities(Long userId, String cursor, Integer size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<UserActivity> visible = new ArrayList<>();
+        boolean exhausted = false;
+        for (int round = 0; round < MAX_SCAN_ROUNDS && visible.size() <= pageSize && !exhausted; round++) {
+            List<UserActivity> batch = position == null
+                    ? userActivityRepository.findTimelineFirstPage(userId, limit)
+                    : userActivityRepository.findTimelineAfter(userId, position.createdAt(), position.id(), limit);
+            exhausted = batch.size() < limit.getPageSize();
+            if (batch.isEmpty()) {
+                break;
             }
+            UserActivity last = batch.get(batch.size() - 1);
+            position = new FeedCursor(last.getCreatedAt(), last.getId());
+            visible.addAll(withoutRetracted(userId, batch));
         }
 
-        // Récupérer les commentaires créés par l'utilisateur
-        List<Comment> userComments = commentRepository.findByUserId(userId);
-        for (Comment comment : userComments) {
-            activities.add(UserActivity.builder()
-                    .id(comment.getId() + 20000) // Pour éviter les conflits d'ID
-                    .userId(userId)
-                    .activityType("COMMENT")
-                    .targetId(comment.getId())
-                    .content(comment.getContent())
-                    .createdAt(comment.getCreatedAt())
-                    .targetTitle(truncateContent(comment.getContent(), 50))
-                    .postId(comment.getPost().getId())
-                    .build());
+        boolean hasMore;
+        List<UserActivity> page;
+        String nextCursor;
+        if (visible.size() > pageSize) {
+            page = visible.subList(0, pageSize);
+            UserActivity last = page.get(page.size() - 1);
+            hasMore = true;
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        } else {
+            // Page incomplète après MAX_SCAN_ROUNDS : on reprend après la dernière ligne lue
+            page = visible;
+            hasMore = !exhausted && position != null;
+            nextCursor = hasMore ? position.encode() : null;
         }
 
-        // Récupérer les commentaires likés par l'utilisateur
-        List<Comment> allComments = commentRepository.findAll();
-        for (Comment comment : allComments) {
-            if (comment.getLikedByUsers().contains(userId)) {
-                activities.add(UserActivity.builder()
-                        .id(comment.getId() + 30000) // Pour éviter les conflits d'ID
-                        .userId(userId)
-                        .activityType("COMMENT_LIKE")
-                        .targetId(comment.getId())
-                        .createdAt(comment.getCreatedAt()) // Approximation, car nous n'avons pas la date exacte du like
-                        .targetTitle(truncateContent(comment.getContent(), 50))
-                        .postId(comment.getPost().getId())
-                        .build());
+        return CursorPage.<UserActivity>builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Écarte les likes retirés (ou remplacés par un like plus récent) et les contenus supprimés,
+    // avec une requête groupée par type pour tout le lot
+    private List<UserActivity> withoutRetracted(Long userId, List<UserActivity> batch) {
+        Set<Long> postIds = new HashSet<>();
+        Set<Long> commentIds = new HashSet<>();
+        Set<Long> likedPostIds = new HashSet<>();
+        Set<Long> likedCommentIds = new HashSet<>();
+        for (UserActivity activity : batch) {
+            switch (activity.getActivityType()) {
+                case POST -> postIds.add(activity.getTargetId());
+                case COMMENT -> commentIds.add(activity.getTargetId());
+                case POST_LIKE -> likedPostIds.add(activity.getTargetId());
+                case COMMENT_LIKE -> likedCommentIds.add(activity.getTargetId());
+                default -> { }
+            }
+        }
+
+        Set<Long> existingPosts = postIds.isEmpty()
+                ? Set.of() : new HashSet<>(postRepository.findExistingIds(postIds));
+        Set<Long> existingComments = commentIds.isEmpty()
+                ? Set.of() : new HashSet<>(commentRepository.findExistingIds(commentIds));
+
+        Map<Long, LocalDateTime> postLikes = new HashMap<>();
+        if (!likedPostIds.isEmpty()) {
+            for (PostLike like : postLikeRepository.findByUserIdAndPostIdIn(userId, likedPostIds)) {
+                postLikes.put(like.getPostId(), like.getCreatedAt());
+            }
+        }
+        Map<Long, LocalDateTime> commentLikes = new HashMap<>();
+        if (!likedCommentIds.isEmpty()) {
+            for (CommentLike like : commentLikeRepository.findByUserIdAndCommentIdIn(userId, likedCommentIds)) {
+                commentLikes.put(like.getCommentId(), like.getCreatedAt());
             }
         }
 
-        // Trier les activités par date (les plus récentes d'abord)
-        return activities.stream()
-                .sorted(Comparator.comparing(UserActivity::getCreatedAt).reversed())
-                .collect(Collectors.toList());
+        return batch.stream()
+                .filter(activity -> switch (activity.getActivityType()) {
+                    case POST -> existingPosts.contains(activity.getTargetId());
+                    case COMMENT -> existingComments.contains(activity.getTargetId());
+                    case POST_LIKE -> isCurrentLike(postLikes, activity);
+                    case COMMENT_LIKE -> isCurrentLike(commentLikes, activity);
+                    default -> false;
+                })
+                .toList();
+    }
+
+    // Le like courant porte le même horodatage que son activité ; un like antérieur à
+    // l'historisation (created_at nul) correspond à n'importe quelle activité
+    private boolean isCurrentLike(Map<Long, LocalDateTime> likes, UserActivity activity) {
+        if (!likes.containsKey(activity.getTargetId())) {
+            return false;
+        }
+        LocalDateTime likedAt = likes.get(activity.getTargetId());
+        return likedAt == null || Objects.equals(likedAt, activity.getCreatedAt());
+    }
+
+    // --- Reprise de l'historique existant ---
+
+    /**
+     * Au premier démarrage avec le journal, reconstruit l'historique à partir des tables
+     * existantes en quatre INSERT ... SELECT, sans transiter par l'application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup || userActivityRepository.count() > 0) {
+            return;
+        }
+        String insert = "INSERT INTO user_activities " +
+                "(user_id, activity_type, target_id, post_id, content, target_title, created_at) ";
+        int posts = jdbcTemplate.update(insert +
+                "SELECT p.user_id, '" + POST + "', p.id, p.id, p.content, " + TITLE_SQL.formatted("p.content") + ", " +
+                "COALESCE(p.created_at, CURRENT_TIMESTAMP(6)) FROM posts p");
+        int comments = jdbcTemplate.update(insert +
+                "SELECT c.user_id, '" + COMMENT + "', c.id, c.post_id, c.content, " + TITLE_SQL.formatted("c.content") + ", " +
+                "COALESCE(c.created_at, CURRENT_TIMESTAMP(6)) FROM comments c");
+        int postLikes = jdbcTemplate.update(insert +
+                "SELECT l.user_id, '" + POST_LIKE + "', p.id, p.id, NULL, " + TITLE_SQL.formatted("p.content") + ", " +
+                "COALESCE(l.created_at, p.created_at, CURRENT_TIMESTAMP(6)) " +
+                "FROM post_likes l JOIN posts p ON p.id = l.post_id");
+        int commentLikes = jdbcTemplate.update(insert +
+                "SELECT l.user_id, '" + COMMENT_LIKE + "', c.id, c.post_id, NULL, " + TITLE_SQL.formatted("c.content") + ", " +
+                "COALESCE(l.created_at, c.created_at, CURRENT_TIMESTAMP(6)) " +
+                "FROM comment_likes l JOIN comments c ON c.id = l.comment_id");
+        log.info("User activity log backfilled: {} posts, {} comments, {} post likes, {} comment likes",
+                posts, comments, postLikes, commentLikes);
     }
 
     private String truncateContent(String content, int maxLength) {
@@ -0,0 +1,157 @@
+package com.example.forum.service;
+
+import com.example.forum.dto.UserDTO;
+import com.weconnect.media.CacheTrimming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache local des profils renvoyés par Useverification, devant UserClient.
+ *
+ * <p>Les utilisateurs trouvés sont gardés {@code ttl-seconds}, les absents (404 ou réponse
+ * vide) {@code negative-ttl-seconds} ; une erreur d'appel n'est jamais mise en cache. Les
+ * chargements concurrents d'un même identifiant sont regroupés : un seul appel distant est
+ * fait, les autres threads attendent son résultat. Une entrée expirée reste lisible par
+ * {@link #getStale} (service distant indisponible) jusqu'à son remplacement ou son éviction.
+ * Useverification ne notifie pas les modifications de profil : le TTL borne leur retard.
+ */
+@Component
+@Slf4j
+public class UserNearCache {
+
+    private record Entry(UserDTO user, long expiresAtNanos) {}
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Optional<UserDTO>>> inFlight = new ConcurrentHashMap<>();
+
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter stale;
+    private final Timer loadTimer;
+
+    public UserNearCache(MeterRegistry meterRegistry,
+                         @Value("${forum.users.cache.ttl-seconds:300}") long ttlSeconds,
+                         @Value("${forum.users.cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                         @Value("${forum.users.cache.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("forum.users.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("forum.users.cache.requests", "result", "miss");
+        this.coalesced = meterRegistry.counter("forum.users.cache.requests", "result", "coalesced");
+        this.stale = meterRegistry.counter("forum.users.cache.requests", "result", "stale");
+        this.loadTimer = meterRegistry.timer("forum.users.cache.load");
+        meterRegistry.gaugeMapSize("forum.users.cache.size", Tags.empty(), entries);
+    }
+
+    /**
+     * Utilisateur en cache ou chargé par {@code loader} (vide = utilisateur inexistant).
+     * Une exception du loader est propagée à tous les threads en attente, sans être gardée.
+     */
+    public Optional<UserDTO> get(Long userId, Function<Long, Optional<UserDTO>> loader) {
+        Optional<UserDTO> cached = getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Optional<UserDTO>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<UserDTO>> existing = inFlight.putIfAbsent(userId, load);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        misses.increment();
+        try {
+            Optional<UserDTO> user = loadTimer.record(() -> loader.apply(userId));
+            put(userId, user.orElse(null));
+            load.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(userId, load);
+        }
+    }
+
+    /**
+     * Valeur en cache non expirée, ou null si l'utilisateur doit être chargé. Compte un succès
+     * quand l'entrée est présente ; l'appelant compte lui-même ses chargements groupés.
+     */
+    public Optional<UserDTO> getIfPresent(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - System.nanoTime() <= 0) {
+            // Gardée pour getStale jusqu'au prochain rechargement ou à l'éviction
+            return null;
+        }
+        hits.increment();
+        return Optional.ofNullable(entry.user());
+    }
+
+    /**
+     * Dernière valeur connue, même expirée, pour servir un profil quand Useverification ne
+     * répond pas. Null si l'utilisateur n'a jamais été chargé.
+     */
+    public Optional<UserDTO> getStale(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        stale.increment();
+        return Optional.ofNullable(entry.user());
+    }
+
+    // Résultat d'un chargement groupé : trouvés, et absents pour le cache négatif
+    public void putAll(Map<Long, UserDTO> found, Collection<Long> absent) {
+        found.forEach(this::put);
+        absent.forEach(userId -> put(userId, null));
+    }
+
+    public void recordMisses(int count, Duration loadTime) {
+        misses.increment(count);
+        loadTimer.record(loadTime);
+    }
+
+    private void put(Long userId, UserDTO user) {
+        if (entries.size() >= maxEntries) {
+            long now = System.nanoTime();
+            CacheTrimming.trim(entries, maxEntries, entry -> entry.expiresAtNanos() - now <= 0);
+        }
+        long ttl = user != null ? ttlNanos : negativeTtlNanos;
+        entries.put(userId, new Entry(user, System.nanoTime() + ttl));
+    }
+
+    private static Optional<UserDTO> await(CompletableFuture<Optional<UserDTO>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -2,36 +2,219 @@ package com.example.forum.service;
 
 import com.example.forum.client.UserClient;
 import com.example.forum.dto.UserDTO;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Profils des auteurs, lus auprès de Useverification à travers un cache local.
+ *
+ * <p>Chaque appel distant passe par un bulkhead à sémaphore puis un disjoncteur
+ * (instances resilience4j « useverification ») et ne dispose que du plus petit entre son
+ * délai propre et le temps restant à la requête HTTP. Appel refusé (circuit ouvert, bulkhead
+ * plein, budget épuisé) ou en échec : on sert immédiatement le profil en cache, même expiré,
+ * sinon un profil par défaut.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
 
+    // Taille maximale d'un lot envoyé à l'endpoint groupé de Useverification
+    private static final int BULK_CHUNK_SIZE = 200;
+    private static final String USER_SERVICE = "useverification";
+
     private final UserClient userClient;
+    private final MeterRegistry meterRegistry;
+    private final UserNearCache userNearCache;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Value("${forum.users.remote.call-timeout-ms:1500}")
+    private long callTimeoutMs;
+
+    // En dessous, un appel n'a aucune chance d'aboutir : inutile de le tenter
+    @Value("${forum.users.remote.min-call-budget-ms:100}")
+    private long minCallBudgetMs;
 
     public UserDTO getUserById(Long userId) {
         if (userId == null || userId == 0) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User ID cannot be null or zero");
         }
 
+        return fetchUser(userId);
+    }
+
+    /**
+     * Résout en une seule passe tous les utilisateurs référencés par une réponse.
+     * Les identifiants peuvent être répétés (un par post ou commentaire) : chaque
+     * utilisateur distinct n'est demandé qu'une fois, seuls ceux absents du cache local
+     * partent dans l'appel groupé (POST /api/users/bulk de Useverification), et la différence
+     * avec le nombre de références est comptée dans forum.users.lookups.avoided.
+     */
+    public Map<Long, UserDTO> getUsersByIds(Collection<Long> userIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            if (userId != null && userId != 0) {
+                distinctIds.add(userId);
+            }
+        }
+
+        Map<Long, UserDTO> users = new HashMap<>();
+        if (distinctIds.isEmpty()) {
+            return users;
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (Long userId : distinctIds) {
+            Optional<UserDTO> cached = userNearCache.getIfPresent(userId);
+            if (cached == null) {
+                ids.add(userId);
+            } else {
+                cached.ifPresent(user -> users.put(userId, user));
+            }
+        }
+
+        int remoteCalls = 0;
+        long startNanos = System.nanoTime();
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + BULK_CHUNK_SIZE, ids.size()));
+            remoteCalls += fetchChunk(chunk, users);
+        }
+        if (!ids.isEmpty()) {
+            userNearCache.recordMisses(ids.size(), Duration.ofNanos(System.nanoTime() - startNanos));
+        }
+
+        // Les utilisateurs introuvables reçoivent un profil par défaut, comme getUserById
+        for (Long userId : distinctIds) {
+            users.computeIfAbsent(userId, this::createDefaultUser);
+        }
+
+        meterRegistry.counter("forum.users.remote.calls").increment(remoteCalls);
+        meterRegistry.summary("forum.users.lookups.avoided").record(Math.max(0, userIds.size() - remoteCalls));
+        log.debug("Resolved {} user references with {} remote call(s)", userIds.size(), remoteCalls);
+        return users;
+    }
+
+    private int fetchChunk(List<Long> chunk, Map<Long, UserDTO> users) {
         try {
-            UserDTO user = userClient.getUserById(userId);
-            if (user == null) {
-                // If user is not found, return a default user
-                log.warn("User not found with ID: {}. Returning default user.", userId);
-                return createDefaultUser(userId);
+            List<UserDTO> found = callUserService(options -> userClient.getUsersByIds(chunk, options));
+            Map<Long, UserDTO> loaded = new HashMap<>();
+            if (found != null) {
+                for (UserDTO user : found) {
+                    if (user != null && user.getId() != null) {
+                        loaded.put(user.getId(), user);
+                    }
+                }
+            }
+            users.putAll(loaded);
+            userNearCache.putAll(loaded, chunk.stream().filter(id -> !loaded.containsKey(id)).toList());
+            return 1;
+        } catch (Exception e) {
+            if (isRejected(e)) {
+                // Useverification indisponible ou requête hors délai : pas d'appels individuels
+                log.debug("Bulk user lookup skipped: {}", e.toString());
+                chunk.forEach(userId -> users.put(userId, fallbackUser(userId)));
+                return 0;
             }
-            return user;
+            // Endpoint groupé indisponible : on retombe sur un appel par utilisateur distinct
+            log.warn("Bulk user lookup failed: {}. Falling back to {} individual lookups.", e.getMessage(), chunk.size());
+            for (Long userId : chunk) {
+                users.put(userId, fetchUser(userId));
+            }
+            return 1 + chunk.size();
+        }
+    }
+
+    private UserDTO fetchUser(Long userId) {
+        try {
+            // If user is not found, return a default user
+            return userNearCache.get(userId, this::loadUser).orElseGet(() -> createDefaultUser(userId));
         } catch (Exception e) {
-            log.error("Error fetching user with ID {}: {}. Returning default user.", userId, e.getMessage());
+            if (isRejected(e)) {
+                log.debug("User lookup {} skipped: {}", userId, e.toString());
+            } else {
+                log.error("Error fetching user with ID {}: {}. Returning default user.", userId, e.getMessage());
+            }
             // Return a default user instead of throwing an exception
-            return createDefaultUser(userId);
+            return fallbackUser(userId);
+        }
+    }
+
+    // Profil en cache même expiré, sinon profil par défaut (jamais mis en cache)
+    private UserDTO fallbackUser(Long userId) {
+        Optional<UserDTO> stale = userNearCache.getStale(userId);
+        return stale != null && stale.isPresent() ? stale.get() : createDefaultUser(userId);
+    }
+
+    private <T> T callUserService(Function<Request.Options, T> call) {
+        long timeoutMs = callTimeoutMs;
+        Duration remaining = RequestDeadline.remaining();
+        if (remaining != null) {
+            if (remaining.toMillis() < minCallBudgetMs) {
+                throw new BudgetExhaustedException();
+            }
+            timeoutMs = Math.min(timeoutMs, remaining.toMillis());
+        }
+        Request.Options options = new Request.Options(timeoutMs, TimeUnit.MILLISECONDS, timeoutMs, TimeUnit.MILLISECONDS, true);
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(USER_SERVICE);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(USER_SERVICE);
+        // Bulkhead à l'extérieur : un refus faute de place ne compte pas comme un échec du service
+        Supplier<T> guarded = Bulkhead.decorateSupplier(bulkhead,
+                CircuitBreaker.decorateSupplier(circuitBreaker, () -> call.apply(options)));
+        return guarded.get();
+    }
+
+    private static boolean isRejected(Exception e) {
+        return e instanceof CallNotPermittedException
+                || e instanceof BulkheadFullException
+                || e instanceof BudgetExhaustedException;
+    }
+
+    private static class BudgetExhaustedException extends RuntimeException {
+        BudgetExhaustedException() {
+            super("Request deadline exhausted", null, false, false);
+        }
+    }
+
+    // Vide si l'utilisateur n'existe pas (mis en cache négatif) ; les autres erreurs remontent
+    private Optional<UserDTO> loadUser(Long userId) {
+        meterRegistry.counter("forum.users.remote.calls").increment();
+        try {
+            UserDTO user = callUserService(options -> userClient.getUserById(userId, options));
+            if (user == null) {
+                log.warn("User not found with ID: {}. Returning default user.", userId);
+            }
+            return Optional.ofNullable(user);
+        } catch (FeignException.NotFound e) {
+            log.warn("User not found with ID: {}. Returning default user.", userId);
+            return Optional.empty();
         }
     }
 
@@ -0,0 +1,269 @@
+package com.example.forum.trending;
+
+import com.example.forum.config.TransactionCallbacks;
+import com.example.forum.dto.PostRow;
+import com.example.forum.model.Post;
+import com.example.forum.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classement « tendances » des posts, tenu en mémoire et mis à jour à chaque création de
+ * post, like et commentaire (après commit).
+ *
+ * <p>Le score utilise une décroissance « vers l'avant » : chaque événement ajoute
+ * {@code poids * exp(lambda * (t - repère))}. Diviser par {@code exp(lambda * (maintenant - repère))}
+ * donnerait le score décru, mais ce facteur est commun à tous les posts : l'ordre se compare
+ * directement sur les valeurs stockées, sans jamais les recalculer. Le repère est avancé
+ * périodiquement pour rester loin du dépassement de capacité des doubles.
+ *
+ * <p>Un top-K borné est tenu par catégorie et au global ; les lectures ne voient qu'une
+ * liste immuable publiée après chaque écriture, sans verrou. Un rafraîchissement périodique
+ * reconstruit les top-K (un post qui a baissé peut y être dépassé par un post hors liste),
+ * élague les scores devenus négligeables et borne le nombre de posts suivis.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingEngine {
+
+    private record Entry(long postId, String category, double score) {}
+
+    // Meilleur score d'abord ; à score égal, le post le plus récent
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::postId).reversed());
+
+    // Au-delà, le repère est avancé (exp(40) reste très loin de la limite des doubles)
+    private static final double MAX_EXPONENT = 40;
+
+    private final PostRepository postRepository;
+
+    private final Object lock = new Object();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, TreeSet<Entry>> topByCategory = new HashMap<>();
+    private final TreeSet<Entry> topGlobal = new TreeSet<>(RANKING);
+    private long landmarkSeconds = System.currentTimeMillis() / 1000;
+
+    // Listes publiées pour les lectures
+    private final Map<String, List<Long>> publishedByCategory = new ConcurrentHashMap<>();
+    private volatile List<Long> publishedGlobal = List.of();
+
+    @Value("${forum.trending.half-life-hours:12}")
+    private double halfLifeHours;
+
+    @Value("${forum.trending.top-k:100}")
+    private int topK;
+
+    @Value("${forum.trending.post-weight:1.0}")
+    private double postWeight;
+
+    @Value("${forum.trending.like-weight:1.0}")
+    private double likeWeight;
+
+    @Value("${forum.trending.comment-weight:2.0}")
+    private double commentWeight;
+
+    @Value("${forum.trending.warmup-days:7}")
+    private int warmupDays;
+
+    @Value("${forum.trending.max-tracked:50000}")
+    private int maxTracked;
+
+    // Score décru sous lequel un post cesse d'être suivi (une fraction d'un like)
+    @Value("${forum.trending.min-score:0.05}")
+    private double minScore;
+
+    // --- Lecture ---
+
+    /**
+     * Identifiants des posts en tendance, du plus chaud au moins chaud, pour une catégorie
+     * ou toutes (category null ou vide). Au plus top-k résultats.
+     */
+    public List<Long> top(String category, int limit) {
+        List<Long> ranked = category == null || category.isBlank()
+                ? publishedGlobal
+                : publishedByCategory.getOrDefault(category, List.of());
+        return ranked.size() <= limit ? ranked : ranked.subList(0, limit);
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    // --- Événements, appliqués après commit ---
+
+    public void recordPostAfterCommit(Post post) {
+        LocalDateTime createdAt = post.getCreatedAt() != null ? post.getCreatedAt() : LocalDateTime.now();
+        TransactionCallbacks.afterCommit(() -> add(post.getId(), post.getCategory(), postWeight, createdAt));
+    }
+
+    public void recordLikeAfterCommit(Long postId, String category, boolean liked) {
+        // Un like retiré compte au temps présent : légèrement plus que sa contribution d'origine
+        LocalDateTime at = LocalDateTime.now();
+        TransactionCallbacks.afterCommit(() -> add(postId, category, liked ? likeWeight : -likeWeight, at));
+    }
+
+    public void recordCommentAfterCommit(Long postId, String category, LocalDateTime createdAt) {
+        LocalDateTime at = createdAt != null ? createdAt : LocalDateTime.now();
+        TransactionCallbacks.afterCommit(() -> add(postId, category, commentWeight, at));
+    }
+
+    // Retire exactement la contribution du commentaire, connue par sa date
+    public void removeCommentAfterCommit(Long postId, LocalDateTime createdAt) {
+        LocalDateTime at = createdAt != null ? createdAt : LocalDateTime.now();
+        TransactionCallbacks.afterCommit(() -> add(postId, null, -commentWeight, at));
+    }
+
+    public void moveAfterCommit(Long postId, String category) {
+        TransactionCallbacks.afterCommit(() -> add(postId, category, 0, LocalDateTime.now()));
+    }
+
+    public void removeAfterCommit(Long postId) {
+        TransactionCallbacks.afterCommit(() -> remove(postId));
+    }
+
+    // --- Maintenance ---
+
+    // Démarrage : les posts récents sont amorcés avec leurs compteurs, datés de leur création
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<PostRow> recent = postRepository.findRowsCreatedAfter(LocalDateTime.now().minusDays(warmupDays));
+        synchronized (lock) {
+            for (PostRow post : recent) {
+                LocalDateTime createdAt = post.createdAt() != null ? post.createdAt() : LocalDateTime.now();
+                double score = weightAt(createdAt)
+                        * (postWeight + likeWeight * post.likes() + commentWeight * post.comments());
+                entries.put(post.id(), new Entry(post.id(), post.category(), score));
+            }
+        }
+        refresh();
+        log.info("Trending engine warmed up with {} post(s) from the last {} day(s)", recent.size(), warmupDays);
+    }
+
+    @Scheduled(
+        initialDelayString = "${forum.trending.refresh-interval-ms:60000}",
+        fixedDelayString = "${forum.trending.refresh-interval-ms:60000}"
+    )
+    public void refresh() {
+        synchronized (lock) {
+            long now = System.currentTimeMillis() / 1000;
+            double lambda = lambda();
+            if (lambda * (now - landmarkSeconds) > MAX_EXPONENT) {
+                // Avancer le repère : tous les scores sont divisés par le même facteur
+                double scale = Math.exp(-lambda * (now - landmarkSeconds));
+                entries.replaceAll((id, entry) -> new Entry(id, entry.category(), entry.score() * scale));
+                landmarkSeconds = now;
+            }
+
+            // Élaguer ce qui ne pèse plus rien aujourd'hui, puis borner le nombre de posts suivis
+            double threshold = minScore * Math.exp(lambda * (now - landmarkSeconds));
+            entries.values().removeIf(entry -> entry.score() < threshold);
+            if (entries.size() > maxTracked) {
+                List<Entry> ranked = new ArrayList<>(entries.values());
+                ranked.sort(RANKING);
+                ranked.subList(maxTracked, ranked.size()).forEach(entry -> entries.remove(entry.postId()));
+            }
+
+            topGlobal.clear();
+            topByCategory.clear();
+            for (Entry entry : entries.values()) {
+                offer(topGlobal, entry);
+                offer(topByCategory.computeIfAbsent(entry.category(), category -> new TreeSet<>(RANKING)), entry);
+            }
+            publishedByCategory.keySet().retainAll(topByCategory.keySet());
+            topByCategory.keySet().forEach(this::publish);
+            publishedGlobal = ids(topGlobal);
+        }
+    }
+
+    // Le poids est daté ici, sous le verrou, par rapport au repère courant
+    private void add(Long postId, String category, double weight, LocalDateTime at) {
+        synchronized (lock) {
+            double delta = weight * weightAt(at);
+            Entry previous = entries.get(postId);
+            if (previous == null && category == null) {
+                // Post non suivi et catégorie inconnue : rien à classer
+                return;
+            }
+            String effectiveCategory = category != null ? category : previous.category();
+            double score = Math.max(0, (previous != null ? previous.score() : 0) + delta);
+            Entry updated = new Entry(postId, effectiveCategory, score);
+            entries.put(postId, updated);
+
+            if (previous != null) {
+                unlist(previous);
+            }
+            offer(topGlobal, updated);
+            offer(topByCategory.computeIfAbsent(effectiveCategory, c -> new TreeSet<>(RANKING)), updated);
+            publish(effectiveCategory);
+            if (previous != null && !previous.category().equals(effectiveCategory)) {
+                publish(previous.category());
+            }
+            publishedGlobal = ids(topGlobal);
+        }
+    }
+
+    private void remove(Long postId) {
+        synchronized (lock) {
+            Entry previous = entries.remove(postId);
+            if (previous != null) {
+                unlist(previous);
+                publish(previous.category());
+                publishedGlobal = ids(topGlobal);
+            }
+        }
+    }
+
+    private void unlist(Entry entry) {
+        topGlobal.remove(entry);
+        TreeSet<Entry> categoryTop = topByCategory.get(entry.category());
+        if (categoryTop != null) {
+            categoryTop.remove(entry);
+        }
+    }
+
+    private void offer(TreeSet<Entry> top, Entry entry) {
+        top.add(entry);
+        if (top.size() > topK) {
+            top.pollLast();
+        }
+    }
+
+    private void publish(String category) {
+        TreeSet<Entry> top = topByCategory.get(category);
+        if (top == null || top.isEmpty()) {
+            publishedByCategory.remove(category);
+        } else {
+            publishedByCategory.put(category, ids(top));
+        }
+    }
+
+    private static List<Long> ids(TreeSet<Entry> top) {
+        return top.stream().map(Entry::postId).toList();
+    }
+
+    // Appelé sous le verrou
+    private double weightAt(LocalDateTime at) {
+        long seconds = at.atZone(ZoneId.systemDefault()).toEpochSecond();
+        return Math.exp(lambda() * (seconds - landmarkSeconds));
+    }
+
+    private double lambda() {
+        return Math.log(2) / (halfLifeHours * 3600);
+    }
+}
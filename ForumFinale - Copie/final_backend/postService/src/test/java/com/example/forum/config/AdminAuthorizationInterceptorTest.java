@@ -0,0 +1,95 @@
+package com.example.forum.config;
+
+import com.example.forum.client.UserClient;
+import com.example.forum.dto.TokenStatus;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdminAuthorizationInterceptorTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123";
+
+    private final UserClient userClient = mock(UserClient.class);
+    private final AdminAuthorizationInterceptor interceptor =
+            new AdminAuthorizationInterceptor(SECRET, "ROLE_ADMIN", userClient);
+
+    @Test
+    void acceptsValidAdminToken() throws Exception {
+        when(userClient.getTokenStatus(eq("jti-1"), anyLong())).thenReturn(new TokenStatus(false));
+
+        assertEquals(200, status(token("jti-1", List.of("ROLE_ADMIN"), expiresIn(60_000)).compact()));
+    }
+
+    @Test
+    void rejectsRevokedToken() throws Exception {
+        when(userClient.getTokenStatus(eq("jti-2"), anyLong())).thenReturn(new TokenStatus(true));
+
+        assertEquals(401, status(token("jti-2", List.of("ROLE_ADMIN"), expiresIn(60_000)).compact()));
+    }
+
+    @Test
+    void failsClosedWhenRevocationCannotBeChecked() throws Exception {
+        when(userClient.getTokenStatus(anyString(), anyLong())).thenThrow(new IllegalStateException("down"));
+
+        assertEquals(503, status(token("jti-3", List.of("ROLE_ADMIN"), expiresIn(60_000)).compact()));
+    }
+
+    @Test
+    void rejectsTokenWithoutExpiration() throws Exception {
+        assertEquals(401, status(token("jti-4", List.of("ROLE_ADMIN"), null).compact()));
+    }
+
+    @Test
+    void rejectsExpiredOrForeignTokens() throws Exception {
+        assertEquals(401, status(token("jti-5", List.of("ROLE_ADMIN"), expiresIn(-1_000)).compact()));
+        String foreign = Jwts.builder().setId("jti-6").claim("roles", List.of("ROLE_ADMIN"))
+                .setExpiration(expiresIn(60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-another-secret-another-01".getBytes(StandardCharsets.UTF_8)),
+                        SignatureAlgorithm.HS256)
+                .compact();
+        assertEquals(401, status(foreign));
+        assertEquals(401, status(null));
+    }
+
+    @Test
+    void forbidsNonAdmins() throws Exception {
+        assertEquals(403, status(token("jti-7", List.of("ROLE_USER"), expiresIn(60_000)).compact()));
+    }
+
+    private int status(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/posts/admin/bulk-delete");
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        return interceptor.preHandle(request, response, null) ? 200 : response.getStatus();
+    }
+
+    private static JwtBuilder token(String id, List<String> roles, Date expiration) {
+        JwtBuilder builder = Jwts.builder().setSubject("admin@example.com").setId(id).claim("roles", roles);
+        if (expiration != null) {
+            builder.setExpiration(expiration);
+        }
+        return builder.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256);
+    }
+
+    private static Date expiresIn(long millis) {
+        return new Date(System.currentTimeMillis() + millis);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.forum.controller;
+
+import com.example.forum.service.UploadedFileResolver.ResolvedFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileControllerTest {
+
+    private static final long LAST_MODIFIED = 1_760_000_000_000L;
+    private static final ResolvedFile FILE = new ResolvedFile(Path.of("uploads/a.png"), 10, LAST_MODIFIED,
+            "\"abc\"", "image/png", false, false);
+
+    @Test
+    void rangeWithoutIfRangeIsServed() {
+        assertTrue(FileController.ifRangeMatches(new MockHttpServletRequest(), FILE));
+    }
+
+    @Test
+    void ifRangeUsesStrongEtagComparison() {
+        assertTrue(FileController.ifRangeMatches(ifRange("\"abc\""), FILE));
+        assertFalse(FileController.ifRangeMatches(ifRange("W/\"abc\""), FILE));
+        assertFalse(FileController.ifRangeMatches(ifRange("\"other\""), FILE));
+    }
+
+    @Test
+    void ifRangeDateMustEqualLastModified() {
+        MockHttpServletRequest current = new MockHttpServletRequest();
+        current.addHeader(HttpHeaders.IF_RANGE, LAST_MODIFIED);
+        MockHttpServletRequest older = new MockHttpServletRequest();
+        older.addHeader(HttpHeaders.IF_RANGE, LAST_MODIFIED - 1000);
+
+        assertTrue(FileController.ifRangeMatches(current, FILE));
+        assertFalse(FileController.ifRangeMatches(older, FILE));
+        assertFalse(FileController.ifRangeMatches(ifRange("not a date"), FILE));
+    }
+
+    @Test
+    void contentDispositionEscapesFilename() {
+        assertEquals("inline; filename=\"a\\\"b.png\"", FileController.contentDisposition("inline", "a\"b.png"));
+        assertTrue(FileController.contentDisposition("attachment", "été.png")
+                .endsWith("; filename*=UTF-8''%C3%A9t%C3%A9.png"));
+    }
+
+    private static MockHttpServletRequest ifRange(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_RANGE, value);
+        return request;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.forum.search;
+
+import com.example.forum.model.Post;
+import com.example.forum.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostSearchIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private PostSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = newIndex(postRepository);
+    }
+
+    @Test
+    void higherTermFrequencyRanksFirst() {
+        index.index(1L, "java", "general", T0);
+        index.index(2L, "java java java", "general", T0);
+        index.index(3L, "python", "general", T0);
+
+        PostSearchIndex.SearchHits hits = index.search("java", 0, 10);
+
+        assertEquals(List.of(2L, 1L), hits.postIds());
+        assertEquals(2, hits.total());
+    }
+
+    @Test
+    void rareTermOutweighsCommonTerm() {
+        index.index(1L, "spring boot", "general", T0);
+        index.index(2L, "spring", "general", T0);
+        index.index(3L, "spring", "general", T0);
+
+        // "boot" n'apparaît que dans le post 1 : son idf l'emporte
+        assertEquals(List.of(1L, 3L, 2L), index.search("spring boot", 0, 10).postIds());
+    }
+
+    @Test
+    void categoryTermsAreBoosted() {
+        index.index(1L, "sport aujourd'hui", "general", T0);
+        index.index(2L, "aujourd'hui", "sport", T0);
+
+        assertEquals(List.of(2L, 1L), index.search("sport", 0, 10).postIds());
+    }
+
+    @Test
+    void equalScoresPutNewestPostFirstAndPageByOffset() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(id, "match", "general", T0);
+        }
+
+        assertEquals(List.of(5L, 4L), index.search("match", 0, 2).postIds());
+        assertEquals(List.of(3L, 2L), index.search("match", 2, 2).postIds());
+        assertEquals(List.of(1L), index.search("match", 4, Integer.MAX_VALUE).postIds());
+        assertEquals(5, index.search("match", 4, 2).total());
+    }
+
+    @Test
+    void reindexAndRemoveReplacePostings() {
+        index.index(1L, "ancien contenu", "general", T0);
+        index.index(1L, "nouveau texte", "general", T0.plusMinutes(1));
+        index.index(2L, "nouveau", "general", T0);
+
+        assertTrue(index.search("ancien", 0, 10).postIds().isEmpty());
+        assertEquals(List.of(1L, 2L), index.search("texte nouveau", 0, 10).postIds());
+
+        index.remove(1L);
+        assertEquals(List.of(2L), index.search("nouveau texte", 0, 10).postIds());
+    }
+
+    @Test
+    void snapshotRoundTripsTheIndex() {
+        index.index(1L, "java java", "general", T0);
+        index.index(2L, "java", "sport", T0.plusHours(1));
+        index.saveSnapshot();
+
+        PostSearchIndex reloaded = newIndex(postRepository);
+        assertTrue(reloaded.loadSnapshot());
+
+        assertEquals(index.search("java", 0, 10), reloaded.search("java", 0, 10));
+        assertEquals(List.of(2L), reloaded.search("sport", 0, 10).postIds());
+    }
+
+    @Test
+    void corruptSnapshotIsRejected() throws Exception {
+        Files.write(dir.resolve("posts.idx"), new byte[] {0, 0, 0, 1, 0});
+
+        assertFalse(index.loadSnapshot());
+        assertTrue(index.search("java", 0, 10).postIds().isEmpty());
+    }
+
+    @Test
+    void warmUpCatchesUpWithChangesMadeAfterTheSnapshot() {
+        index.index(1L, "kept", "general", T0);
+        index.index(2L, "deleted", "general", T0);
+        index.index(3L, "stale", "general", T0.plusHours(1));
+        index.saveSnapshot();
+
+        // Pendant l'arrêt : post 2 supprimé, post 3 modifié, post 4 créé
+        Post modified = post(3L, "fresh", T0.plusHours(2));
+        Post created = post(4L, "created", T0.plusHours(3));
+        when(postRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 3L, 4L));
+        when(postRepository.findIdsAfter(eq(4L), any(Pageable.class))).thenReturn(List.of());
+        when(postRepository.findAllById(List.of(4L))).thenReturn(List.of(created));
+        when(postRepository.findByUpdatedAtAfter(T0.plusHours(1))).thenReturn(List.of(modified));
+
+        PostSearchIndex restarted = newIndex(postRepository);
+        restarted.warmUp();
+
+        assertEquals(List.of(1L), restarted.search("kept", 0, 10).postIds());
+        assertTrue(restarted.search("deleted", 0, 10).postIds().isEmpty());
+        assertTrue(restarted.search("stale", 0, 10).postIds().isEmpty());
+        assertEquals(List.of(3L), restarted.search("fresh", 0, 10).postIds());
+        assertEquals(List.of(4L), restarted.search("created", 0, 10).postIds());
+    }
+
+    @Test
+    void warmUpWithoutSnapshotRebuildsAndSaves() {
+        when(postRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(7L));
+        when(postRepository.findIdsAfter(eq(7L), any(Pageable.class))).thenReturn(List.of());
+        when(postRepository.findAllById(List.of(7L))).thenReturn(List.of(post(7L, "rebuilt", T0)));
+
+        index.warmUp();
+
+        assertEquals(List.of(7L), index.search("rebuilt", 0, 10).postIds());
+        assertTrue(Files.exists(dir.resolve("posts.idx")));
+    }
+
+    private PostSearchIndex newIndex(PostRepository repository) {
+        PostSearchIndex searchIndex = new PostSearchIndex(repository);
+        ReflectionTestUtils.setField(searchIndex, "snapshotPath", dir.resolve("posts.idx").toString());
+        return searchIndex;
+    }
+
+    private static Post post(Long id, String content, LocalDateTime updatedAt) {
+        return Post.builder().id(id).content(content).category("general").updatedAt(updatedAt).build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.forum.service;
+
+import com.example.forum.model.UploadLease;
+import com.example.forum.repository.UploadLeaseRepository;
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.MediaStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileStorageServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    // Table upload_leases simulée en mémoire
+    private final List<UploadLease> leases = new ArrayList<>();
+    private final UploadLeaseRepository leaseRepository = mock(UploadLeaseRepository.class);
+    private MediaStore mediaStore;
+    private FileStorageService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(leaseRepository.save(any())).thenAnswer(call -> {
+            UploadLease lease = call.getArgument(0);
+            lease.setId((long) leases.size() + 1);
+            leases.add(lease);
+            return lease;
+        });
+        when(leaseRepository.findExpired(any(), any())).thenAnswer(call -> {
+            LocalDateTime now = call.getArgument(0);
+            return leases.stream().filter(lease -> !lease.getExpiresAt().isAfter(now)).toList();
+        });
+        when(leaseRepository.deleteLease(anyLong())).thenAnswer(call -> {
+            Long id = call.getArgument(0);
+            return leases.removeIf(lease -> lease.getId().equals(id)) ? 1 : 0;
+        });
+
+        mediaStore = new MediaStore(uploads);
+        service = new FileStorageService(mediaStore, mock(ImageVariants.class), mock(UploadedFileResolver.class),
+                leaseRepository);
+        ReflectionTestUtils.setField(service, "uploadLeaseMinutes", 60L);
+    }
+
+    @Test
+    void postKeepsItsImageAfterTheUploadLeaseExpires() {
+        String url = service.storeFile(image("photo.png"));
+        Path blob = uploads.resolve(MediaStore.filenameFromUrl(url));
+        assertEquals(1, leases.size());
+
+        // Le frontend enregistre l'URL absolue renvoyée par l'upload
+        String postImage = service.ingestImageUrl("http://localhost:8082" + url);
+        assertEquals("http://localhost:8082" + url, postImage);
+
+        expireLeases();
+        service.releaseExpiredUploadLeases();
+        assertTrue(leases.isEmpty());
+        assertTrue(Files.exists(blob), "la référence du post garde le fichier");
+
+        // Suppression du post : dernière référence rendue
+        service.releaseAfterCommit(postImage);
+        assertFalse(Files.exists(blob));
+    }
+
+    @Test
+    void abandonedUploadIsDeletedWhenItsLeaseExpires() {
+        String url = service.storeFile(image("orphan.png"));
+        Path blob = uploads.resolve(MediaStore.filenameFromUrl(url));
+
+        service.releaseExpiredUploadLeases();
+        assertTrue(Files.exists(blob), "bail encore valide");
+
+        expireLeases();
+        service.releaseExpiredUploadLeases();
+        assertFalse(Files.exists(blob));
+    }
+
+    @Test
+    void sharedImageSurvivesUntilTheLastPostIsDeleted() {
+        String url = service.storeFile(image("shared.png"));
+        Path blob = uploads.resolve(MediaStore.filenameFromUrl(url));
+        String first = service.ingestImageUrl(url);
+        String second = service.ingestImageUrl("//localhost:8082" + url);
+        expireLeases();
+        service.releaseExpiredUploadLeases();
+
+        service.releaseAfterCommit(first);
+        assertTrue(Files.exists(blob));
+        service.releaseAfterCommit(second);
+        assertFalse(Files.exists(blob));
+    }
+
+    @Test
+    void externalUrlsAreLeftAlone() {
+        assertFalse(FileStorageService.isStoredUrl("https://cdn.example.com/images/a.png"));
+        assertFalse(FileStorageService.isStoredUrl(null));
+        assertTrue(FileStorageService.isStoredUrl("/api/uploads/a.png"));
+        assertTrue(FileStorageService.isStoredUrl("http://localhost:8082/api/uploads/a.png?w=480"));
+        assertEquals("https://cdn.example.com/a.png", service.ingestImageUrl("https://cdn.example.com/a.png"));
+    }
+
+    private void expireLeases() {
+        leases.forEach(lease -> lease.setExpiresAt(LocalDateTime.now().minusSeconds(1)));
+    }
+
+    private static MockMultipartFile image(String name) {
+        return new MockMultipartFile("file", name, "image/png", name.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.forum.service;
+
+import com.example.forum.repository.PostRepository;
+import com.weconnect.media.MediaStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class InlineImageMigrationTest {
+
+    private static final String DATA_URI = "data:image/png;base64,AAAA";
+
+    @TempDir
+    Path uploads;
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private InlineImageMigration migration;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        migration = new InlineImageMigration(postRepository, fileStorageService, new MediaStore(uploads));
+        ReflectionTestUtils.setField(migration, "migrateOnStartup", true);
+        ReflectionTestUtils.setField(migration, "batchSize", 100);
+    }
+
+    @Test
+    void completedMigrationIsRecorded() {
+        when(postRepository.findInlineImageIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(postRepository.findInlineImageIdsAfter(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(postRepository.findImageUrl(1L)).thenReturn(Optional.of(DATA_URI));
+        when(fileStorageService.storeDataUri(DATA_URI)).thenReturn("/api/uploads/abc.png");
+        when(postRepository.replaceInlineImage(1L, "/api/uploads/abc.png")).thenReturn(1);
+
+        assertEquals(1, migration.migrate());
+        assertTrue(Files.exists(uploads.resolve(".inline-images-migrated")));
+    }
+
+    @Test
+    void failedRowsKeepTheMigrationPending() {
+        when(postRepository.findInlineImageIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(postRepository.findInlineImageIdsAfter(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(postRepository.findImageUrl(1L)).thenReturn(Optional.of(DATA_URI));
+        when(fileStorageService.storeDataUri(DATA_URI)).thenThrow(new IllegalArgumentException("bad image"));
+
+        assertEquals(0, migration.migrate());
+        assertFalse(Files.exists(uploads.resolve(".inline-images-migrated")));
+    }
+
+    @Test
+    void startupSkipsTableScanOnceCompleted() throws IOException {
+        Files.writeString(uploads.resolve(".inline-images-migrated"), "");
+
+        migration.migrateInBackground();
+
+        verifyNoInteractions(postRepository, fileStorageService);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.forum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikeTableMigrationTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final LikeTableMigration migration = new LikeTableMigration(jdbcTemplate, transactionTemplate);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(call -> ((TransactionCallback<Object>) call.getArgument(0)).doInTransaction(mock(TransactionStatus.class)))
+                .when(transactionTemplate).execute(any());
+        when(jdbcTemplate.queryForObject(contains("information_schema.TABLES"), eq(Integer.class), eq("post_likes")))
+                .thenReturn(1);
+    }
+
+    @Test
+    void leavesTableWithUniqueKeyUntouched() {
+        when(jdbcTemplate.queryForObject(contains("information_schema.STATISTICS"), eq(Integer.class),
+                eq("post_likes"), eq("post_id"))).thenReturn(1);
+
+        migration.migrate("post_likes", "post_id", "uk_post_likes_post_user");
+
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE"));
+    }
+
+    @Test
+    void mergesDuplicatesBeforeAddingUniqueKey() {
+        when(jdbcTemplate.queryForObject(contains("information_schema.STATISTICS"), eq(Integer.class),
+                eq("post_likes"), eq("post_id"))).thenReturn(0);
+
+        migration.migrate("post_likes", "post_id", "uk_post_likes_post_user");
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute(startsWith("CREATE TEMPORARY TABLE like_duplicates"));
+        order.verify(jdbcTemplate).update(startsWith("DELETE l FROM post_likes l JOIN like_duplicates"));
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO post_likes"));
+        order.verify(jdbcTemplate).execute("DROP TEMPORARY TABLE IF EXISTS like_duplicates");
+        order.verify(jdbcTemplate).execute(
+                "ALTER TABLE post_likes ADD CONSTRAINT uk_post_likes_post_user UNIQUE (post_id, user_id)");
+    }
+
+    @Test
+    void skipsMissingTable() {
+        migration.migrate("comment_likes", "comment_id", "uk_comment_likes_comment_user");
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
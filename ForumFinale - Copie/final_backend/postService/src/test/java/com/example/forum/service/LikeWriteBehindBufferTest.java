@@ -0,0 +1,131 @@
+package com.example.forum.service;
+
+import com.example.forum.live.LiveUpdateHub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikeWriteBehindBufferTest {
+
+    private static final String INSERT = "INSERT IGNORE INTO post_likes";
+    private static final String DELETE = "DELETE FROM post_likes";
+    private static final String COUNTER = "UPDATE posts SET likes";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private LikeWriteBehindBuffer buffer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(call -> {
+            ((Consumer<TransactionStatus>) call.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        buffer = new LikeWriteBehindBuffer(jdbcTemplate, transactionTemplate, mock(UserActivityService.class),
+                mock(LiveUpdateHub.class));
+    }
+
+    @Test
+    void toggleTwiceCancelsOut() {
+        assertTrue(buffer.toggle(1L, 10L, () -> false));
+        assertEquals(1, buffer.pendingDelta(1L));
+        assertFalse(buffer.toggle(1L, 10L, () -> false));
+        assertEquals(0, buffer.pendingDelta(1L));
+        assertTrue(pendingDeltas().isEmpty());
+    }
+
+    @Test
+    void flushMovesTheDeltaToTheDatabaseWithoutDoubleCounting() {
+        buffer.toggle(1L, 10L, () -> false);
+        buffer.toggle(1L, 11L, () -> false);
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT), anyList())).thenReturn(new int[]{1, 1});
+        when(jdbcTemplate.batchUpdate(startsWith(DELETE), anyList())).thenReturn(new int[0]);
+
+        buffer.flush();
+
+        assertArrayEquals(new Object[]{2, 1L}, counterUpdates().get(0));
+        // Le compteur persisté porte maintenant les deux likes : plus rien en attente
+        assertEquals(0, buffer.pendingDelta(1L));
+        assertNull(buffer.pendingState(1L, 10L));
+        assertTrue(pendingDeltas().isEmpty());
+
+        // Un second passage n'écrit rien de plus
+        buffer.flush();
+        verify(jdbcTemplate).batchUpdate(startsWith(COUNTER), anyList());
+    }
+
+    @Test
+    void unlikeAfterFlushStartsFromThePersistedState() {
+        buffer.toggle(1L, 10L, () -> false);
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT), anyList())).thenReturn(new int[]{1});
+        when(jdbcTemplate.batchUpdate(startsWith(DELETE), anyList())).thenReturn(new int[0]);
+        buffer.flush();
+
+        // La base a le like ; l'état persisté n'est plus relu puisque rien n'est en attente
+        assertFalse(buffer.toggle(1L, 10L, () -> true));
+        assertEquals(-1, buffer.pendingDelta(1L));
+    }
+
+    @Test
+    void likesOfDeletedPostsAreDropped() {
+        buffer.toggle(7L, 10L, () -> false);
+        // Post supprimé : INSERT ... SELECT FROM posts n'insère rien
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT), anyList())).thenReturn(new int[]{0});
+        when(jdbcTemplate.batchUpdate(startsWith(DELETE), anyList())).thenReturn(new int[0]);
+
+        buffer.flush();
+
+        assertTrue(counterUpdates().isEmpty());
+        assertEquals(0, buffer.pendingDelta(7L));
+        assertNull(buffer.pendingState(7L, 10L));
+        assertTrue(pendingDeltas().isEmpty());
+    }
+
+    @Test
+    void failedFlushKeepsTogglesPending() {
+        buffer.toggle(1L, 10L, () -> false);
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT), anyList())).thenThrow(new IllegalStateException("down"));
+
+        buffer.flush();
+
+        assertEquals(1, buffer.pendingDelta(1L));
+        assertEquals(Boolean.TRUE, buffer.pendingState(1L, 10L));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith(COUNTER), anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> counterUpdates() {
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE posts SET likes = likes + ? WHERE id = ?"), updates.capture());
+        return updates.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Integer> pendingDeltas() {
+        return (Map<Long, Integer>) ReflectionTestUtils.getField(buffer, "pendingDeltas");
+    }
+}
@@ -1,13 +1,16 @@
 package com.example.weconnect;
 
+import com.weconnect.media.spring.MediaStoreConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients(basePackages = "com.example.weconnect.client") 
+@Import(MediaStoreConfiguration.class)
 public class WeConnectApplication {
     public static void main(String[] args) {
         SpringApplication.run(WeConnectApplication.class, args);
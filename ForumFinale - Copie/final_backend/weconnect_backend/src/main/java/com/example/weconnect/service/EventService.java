@@ -6,17 +6,16 @@ import com.example.weconnect.dto.ClubDTO;
 import com.example.weconnect.dto.UserDTO;
 import com.example.weconnect.model.Event;
 import com.example.weconnect.repository.EventRepository;
+import com.weconnect.media.ImageVariants;
+import com.weconnect.media.MediaStore;
+import com.weconnect.media.StoredMedia;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.List;
-import java.util.UUID;
 
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -26,10 +25,15 @@ public class EventService {
 
     private final EventRepository repo;
     private final UserClient userClient;
+    private final MediaStore mediaStore;
+    private final ImageVariants imageVariants;
 
-    public EventService(EventRepository repo, UserClient userClient) {
+    public EventService(EventRepository repo, UserClient userClient, MediaStore mediaStore,
+                        ImageVariants imageVariants) {
         this.repo = repo;
         this.userClient = userClient;
+        this.mediaStore = mediaStore;
+        this.imageVariants = imageVariants;
     
     }
 
@@ -83,6 +87,9 @@ public class EventService {
             throw new RuntimeException("Forbidden: not the creator");
         }
         repo.delete(e);
+        if (e.getImage() != null && !e.getImage().isEmpty()) {
+            removeImageFile(e.getImage());
+        }
     }
 
     public Event findById(Long id) {
@@ -106,20 +113,18 @@ public class EventService {
             throw new IllegalArgumentException("Only image files are allowed.");
         }
 
-        // Use absolute path for reliability
-        Path uploadPath = Paths.get(System.getProperty("user.dir"), "uploads");
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        // Stocké une seule fois par contenu (SHA-256), sous un nom stable
+        StoredMedia media;
+        try (InputStream content = file.getInputStream()) {
+            media = mediaStore.store(content, file.getOriginalFilename());
         }
-
-        String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path filePath = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Variantes réduites générées en arrière-plan, servies via ?w=
+        imageVariants.generateAsync(media.filename());
 
         // Save full URL instead of just filename
         String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
                 .path("/uploads/")
-                .path(filename)
+                .path(media.filename())
                 .toUriString();
 
         // Remove old image if exists
@@ -153,18 +158,8 @@ public class EventService {
 
     private boolean removeImageFile(String imageUrl) {
         try {
-            // Extract filename from URL
-            String filename = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-
-            // Create path to the file
-            Path filePath = Paths.get(System.getProperty("user.dir"), "uploads", filename);
-
-            // Delete the file if it exists
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-                return true;
-            }
-            return false;
+            // Retire la référence ; le fichier n'est supprimé que s'il n'est plus utilisé
+            return mediaStore.release(MediaStore.filenameFromUrl(imageUrl));
         } catch (Exception e) {
             e.printStackTrace();
             return false;